@@ -56,13 +56,29 @@
             arr[j + 1] = key;
         }
     }
-    
+
+    // Same idea restricted to arr[left..right], used as the base case of the faster sorts below
+    public static void insertionSort(int[] arr, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int key = arr[i];
+            int j = i - 1;
+            while (j >= left && arr[j] > key) {
+                arr[j + 1] = arr[j];
+                j = j - 1;
+            }
+            arr[j + 1] = key;
+        }
+    }
+
  
  
  /*Merge Sort*/
 //Merge sort splits the list into halves, recursively sorts each half, and then merges the sorted pieces back together.
      public static void mergeSort(int[] arr, int left, int right) {
-        if (left < right) {
+        if (right - left < NETWORK_MAX) {
+            // Up to 16 elements: one sorting network instead of recursing down to single elements
+            networkSort(arr, left, right);
+        } else {
             int mid = (left + right) / 2;
 
             // Sort the halves
@@ -118,7 +134,9 @@
 /*Quick Sort*/
 //Quick sort picks a pivot, partitions the list into elements smaller and larger than the pivot, and then recursively sorts those partitions.
     public static void quickSort(int arr[], int low, int high) {
-        if (low < high) {
+        if (high - low < NETWORK_MAX) {
+            networkSort(arr, low, high);
+        } else {
             int pivotIndex = partition(arr, low, high);
             quickSort(arr, low, pivotIndex - 1);
             quickSort(arr, pivotIndex + 1, high);
@@ -158,6 +176,1775 @@ Answer is D. Steps - Take pivot as first element
                    - Lastly swap whatever R is pointing to at at last with pivot.
     
     
+/*Parallel Merge Sort*/
+//Parallel merge sort sorts both halves as separate fork/join tasks and then merges them by splitting the merge itself in two, so every core gets work. One scratch buffer is shared by the whole sort instead of new L[]/R[] arrays on every merge.
+    private static final int INSERTION_CUTOFF = 32;        // ranges this small are finished with insertion sort
+    private static final int PARALLEL_THRESHOLD = 1 << 13; // ranges this small are not worth forking
+
+    public static void parallelMergeSort(int[] arr, int left, int right) {
+        parallelMergeSort(arr, left, right, INSERTION_CUTOFF);
+    }
+
+    public static void parallelMergeSort(int[] arr, int left, int right, int insertionCutoff) {
+        if (left >= right) return;
+
+        // The buffer starts as a copy of arr[left..right], so each level can sort from one array into the other.
+        // It is indexed from 0, so position i of the range is arr[left + i] and buffer[i].
+        int n = right - left + 1;
+        int[] buffer = new int[n];
+        System.arraycopy(arr, left, buffer, 0, n);
+
+        java.util.concurrent.ForkJoinPool.commonPool()
+                .invoke(new MergeSortTask(buffer, 0, arr, left, 0, n - 1, Math.max(1, insertionCutoff)));
+    }
+
+    // Sorts positions lo..hi of the range, i.e. dst[dstBase + lo..dstBase + hi]; on entry src holds the same
+    // values at srcBase + lo..srcBase + hi
+    private static class MergeSortTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] src, dst;
+        private final int srcBase, dstBase, lo, hi, cutoff;
+
+        MergeSortTask(int[] src, int srcBase, int[] dst, int dstBase, int lo, int hi, int cutoff) {
+            this.src = src;
+            this.srcBase = srcBase;
+            this.dst = dst;
+            this.dstBase = dstBase;
+            this.lo = lo;
+            this.hi = hi;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo + 1 <= PARALLEL_THRESHOLD) {
+                mergeSortInto(src, srcBase, dst, dstBase, lo, hi, cutoff);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+
+            // Sort the halves into src (roles swapped), then merge them back into dst
+            invokeAll(new MergeSortTask(dst, dstBase, src, srcBase, lo, mid, cutoff),
+                      new MergeSortTask(dst, dstBase, src, srcBase, mid + 1, hi, cutoff));
+            new MergeTask(src, srcBase + lo, srcBase + mid, srcBase + mid + 1, srcBase + hi, dst, dstBase + lo).compute();
+        }
+    }
+
+    // Sequential version of MergeSortTask, used once a range is too small to fork
+    private static void mergeSortInto(int[] src, int srcBase, int[] dst, int dstBase, int lo, int hi, int cutoff) {
+        if (hi - lo + 1 <= cutoff) {
+            insertionSort(dst, dstBase + lo, dstBase + hi);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSortInto(dst, dstBase, src, srcBase, lo, mid, cutoff);
+        mergeSortInto(dst, dstBase, src, srcBase, mid + 1, hi, cutoff);
+        mergeRuns(src, srcBase + lo, srcBase + mid, srcBase + mid + 1, srcBase + hi, dst, dstBase + lo);
+    }
+
+    // Merges sorted runs src[lo1..hi1] and src[lo2..hi2] into dst starting at index out
+    private static class MergeTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] src, dst;
+        private final int lo1, hi1, lo2, hi2, out;
+
+        MergeTask(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int out) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1 + 1;
+            int n2 = hi2 - lo2 + 1;
+            if (n1 + n2 <= PARALLEL_THRESHOLD) {
+                mergeRuns(src, lo1, hi1, lo2, hi2, dst, out);
+                return;
+            }
+            if (n1 < n2) {
+                // Always split the longer run; equal ints are interchangeable, so the result is the same
+                new MergeTask(src, lo2, hi2, lo1, hi1, dst, out).compute();
+                return;
+            }
+
+            // Take the middle of run 1 and find where it lands in run 2 by binary search
+            int mid1 = (lo1 + hi1) >>> 1;
+            int mid2 = lowerBound(src, lo2, hi2, src[mid1]);
+            int pivotOut = out + (mid1 - lo1) + (mid2 - lo2);
+            dst[pivotOut] = src[mid1];
+
+            // Everything left of the pivot and everything right of it can now be merged independently
+            invokeAll(new MergeTask(src, lo1, mid1 - 1, lo2, mid2 - 1, dst, out),
+                      new MergeTask(src, mid1 + 1, hi1, mid2, hi2, dst, pivotOut + 1));
+        }
+    }
+
+    // First index in arr[low..high] whose value is >= key (high + 1 if there is none)
+    private static int lowerBound(int[] arr, int low, int high, int key) {
+        int lo = low, hi = high + 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static void mergeRuns(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int k) {
+        while (lo1 <= hi1 && lo2 <= hi2) {
+            if (src[lo1] <= src[lo2]) dst[k++] = src[lo1++];
+            else dst[k++] = src[lo2++];
+        }
+        // Copy any remaining elements
+        if (lo1 <= hi1) System.arraycopy(src, lo1, dst, k, hi1 - lo1 + 1);
+        else if (lo2 <= hi2) System.arraycopy(src, lo2, dst, k, hi2 - lo2 + 1);
+    }
+
+/*Heap Sort*/
+//Heap sort builds a max-heap out of the array, then repeatedly swaps the maximum to the end and shrinks the heap by one (see 4.Heaps.java).
+    public static void heapSort(int[] arr) {
+        heapSort(arr, 0, arr.length - 1);
+    }
+
+    public static void heapSort(int[] arr, int low, int high) {
+        int n = high - low + 1;
+
+        // Build max-heap on arr[low..high]
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            heapifyDown(arr, low, n, i);
+        }
+
+        // Extract max one by one
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, low, low + end);
+            heapifyDown(arr, low, end, 0);
+        }
+    }
+
+    // Heap index i lives at arr[low + i]; the heap holds 'size' elements
+    private static void heapifyDown(int[] arr, int low, int size, int i) {
+        while (true) {
+            int left = 2 * i + 1, right = 2 * i + 2, largest = i;
+            if (left  < size && arr[low + left]  > arr[low + largest]) largest = left;
+            if (right < size && arr[low + right] > arr[low + largest]) largest = right;
+            if (largest == i) break;
+            swap(arr, low + i, low + largest);
+            i = largest;
+        }
+    }
+
+/*Introsort*/
+//Introsort is quick sort with guard rails: a median-of-three (ninther on big ranges) pivot, a 3-way partition so runs of equal keys are finished in one pass, a loop on the larger side so the stack stays O(log n), and a switch to heap sort if the recursion still gets too deep.
+    public static void introSort(int[] arr, int low, int high) {
+        if (low >= high) return;
+        // 2 * floor(log2 n) levels is plenty for any reasonable pivot sequence
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(high - low + 1));
+        introSort(arr, low, high, depthLimit);
+    }
+
+    private static void introSort(int[] arr, int low, int high, int depthLimit) {
+        while (high - low + 1 > INSERTION_CUTOFF) {
+            if (depthLimit-- == 0) {
+                heapSort(arr, low, high);
+                return;
+            }
+            int pivot = arr[choosePivot(arr, low, high)];
+
+            // Dutch flag: arr[low..lt-1] < pivot, arr[lt..gt] == pivot, arr[gt+1..high] > pivot
+            int lt = low, i = low, gt = high;
+            while (i <= gt) {
+                if (arr[i] < pivot) swap(arr, lt++, i++);
+                else if (arr[i] > pivot) swap(arr, i, gt--);
+                else i++;
+            }
+
+            // Recurse into the smaller side and keep looping on the larger one
+            if (lt - low < high - gt) {
+                introSort(arr, low, lt - 1, depthLimit);
+                low = gt + 1;
+            } else {
+                introSort(arr, gt + 1, high, depthLimit);
+                high = lt - 1;
+            }
+        }
+        sortSmallRange(arr, low, high);
+    }
+
+    // Median of three for small ranges, Tukey's ninther (median of three medians) for large ones
+    private static int choosePivot(int[] arr, int low, int high) {
+        int mid = (low + high) >>> 1;
+        if (high - low < 128) {
+            return medianOfThree(arr, low, mid, high);
+        }
+        int step = (high - low) / 8;
+        int a = medianOfThree(arr, low, low + step, low + 2 * step);
+        int b = medianOfThree(arr, mid - step, mid, mid + step);
+        int c = medianOfThree(arr, high - 2 * step, high - step, high);
+        return medianOfThree(arr, a, b, c);
+    }
+
+    private static int medianOfThree(int[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) return b;
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[a] < arr[c]) return a;
+        return arr[b] < arr[c] ? c : b;
+    }
+
+/*Radix Sort*/
+//Radix sort never compares keys: it distributes them into 256 buckets by one 8-bit digit at a time, least significant digit first (LSD), so fixed-width ints take 4 linear passes and longs take 8. Flipping the sign bit makes negative numbers order before positive ones.
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+    private static final int HISTOGRAM_THRESHOLD = 1 << 16; // ranges this big build their histograms in parallel
+
+    public static void radixSort(int[] arr, int low, int high) {
+        int n = high - low + 1;
+        if (n <= INSERTION_CUTOFF) {
+            insertionSort(arr, low, high);
+            return;
+        }
+
+        // One pass over the data counts every digit position at once
+        int[][] counts = java.util.concurrent.ForkJoinPool.commonPool()
+                .invoke(new HistogramTask(arr, null, low, high, Integer.BYTES));
+
+        int[] src = arr, dst = new int[n];
+        int srcOff = low, dstOff = 0;
+        for (int pass = 0; pass < Integer.BYTES; pass++) {
+            int shift = pass * RADIX_BITS;
+            int[] count = counts[pass];
+
+            // Skip digits where every key lands in the same bucket (common for timestamps and IDs)
+            if (count[((src[srcOff] ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK] == n) continue;
+
+            // Turn counts into starting offsets, then scatter (stable, so earlier passes are kept)
+            toOffsets(count, dstOff);
+            for (int i = srcOff; i < srcOff + n; i++) {
+                int v = src[i];
+                dst[count[((v ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK]++] = v;
+            }
+
+            int[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (src != arr) System.arraycopy(src, srcOff, arr, low, n);
+    }
+
+    public static void radixSort(long[] arr, int low, int high) {
+        int n = high - low + 1;
+        if (n <= INSERTION_CUTOFF) {
+            insertionSort(arr, low, high);
+            return;
+        }
+
+        int[][] counts = java.util.concurrent.ForkJoinPool.commonPool()
+                .invoke(new HistogramTask(null, arr, low, high, Long.BYTES));
+
+        long[] src = arr, dst = new long[n];
+        int srcOff = low, dstOff = 0;
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+            int shift = pass * RADIX_BITS;
+            int[] count = counts[pass];
+            if (count[(int) ((src[srcOff] ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK] == n) continue;
+
+            toOffsets(count, dstOff);
+            for (int i = srcOff; i < srcOff + n; i++) {
+                long v = src[i];
+                dst[count[(int) ((v ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK]++] = v;
+            }
+
+            long[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (src != arr) System.arraycopy(src, srcOff, arr, low, n);
+    }
+
+    // Replaces each bucket count with the index where that bucket starts
+    private static void toOffsets(int[] count, int start) {
+        int sum = start;
+        for (int b = 0; b < RADIX; b++) {
+            int c = count[b];
+            count[b] = sum;
+            sum += c;
+        }
+    }
+
+    // counts[d][b] = how many keys have value b in digit d; big ranges are split across the pool
+    private static class HistogramTask extends java.util.concurrent.RecursiveTask<int[][]> {
+        private static final long serialVersionUID = 1L;
+        private final int[] ints;
+        private final long[] longs;
+        private final int low, high, digits;
+
+        HistogramTask(int[] ints, long[] longs, int low, int high, int digits) {
+            this.ints = ints;
+            this.longs = longs;
+            this.low = low;
+            this.high = high;
+            this.digits = digits;
+        }
+
+        @Override
+        protected int[][] compute() {
+            if (high - low + 1 > HISTOGRAM_THRESHOLD) {
+                int mid = (low + high) >>> 1;
+                HistogramTask right = new HistogramTask(ints, longs, mid + 1, high, digits);
+                right.fork();
+                int[][] counts = new HistogramTask(ints, longs, low, mid, digits).compute();
+                int[][] other = right.join();
+                for (int d = 0; d < digits; d++)
+                    for (int b = 0; b < RADIX; b++)
+                        counts[d][b] += other[d][b];
+                return counts;
+            }
+
+            int[][] counts = new int[digits][RADIX];
+            if (ints != null) {
+                for (int i = low; i <= high; i++) {
+                    int key = ints[i] ^ Integer.MIN_VALUE;
+                    for (int d = 0; d < digits; d++)
+                        counts[d][(key >>> (d * RADIX_BITS)) & RADIX_MASK]++;
+                }
+            } else {
+                for (int i = low; i <= high; i++) {
+                    long key = longs[i] ^ Long.MIN_VALUE;
+                    for (int d = 0; d < digits; d++)
+                        counts[d][(int) (key >>> (d * RADIX_BITS)) & RADIX_MASK]++;
+                }
+            }
+            return counts;
+        }
+    }
+
+    public static void insertionSort(long[] arr, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            long key = arr[i];
+            int j = i - 1;
+            while (j >= left && arr[j] > key) {
+                arr[j + 1] = arr[j];
+                j = j - 1;
+            }
+            arr[j + 1] = key;
+        }
+    }
+
+/*MSD Radix Sort*/
+//MSD radix sort goes the other way: it buckets by the most significant digit first (in place, "American flag" style) and recurses into each bucket with the next digit. Small buckets stop early with insertion sort, so skewed data where most keys share a prefix never pays for the low digits.
+    public static void msdRadixSort(int[] arr, int low, int high) {
+        msdRadixSort(arr, low, high, (Integer.BYTES - 1) * RADIX_BITS);
+    }
+
+    private static void msdRadixSort(int[] arr, int low, int high, int shift) {
+        if (high - low + 1 <= INSERTION_CUTOFF) {
+            insertionSort(arr, low, high);
+            return;
+        }
+
+        int[] next = new int[RADIX];
+        for (int i = low; i <= high; i++)
+            next[((arr[i] ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK]++;
+        int[] end = new int[RADIX];
+        toOffsets(next, low);
+        for (int b = 0; b < RADIX - 1; b++) end[b] = next[b + 1];
+        end[RADIX - 1] = high + 1;
+
+        // Cycle each misplaced key straight into its bucket
+        for (int b = 0; b < RADIX; b++) {
+            while (next[b] < end[b]) {
+                int v = arr[next[b]];
+                int d = ((v ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK;
+                while (d != b) {
+                    int t = arr[next[d]];
+                    arr[next[d]++] = v;
+                    v = t;
+                    d = ((v ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK;
+                }
+                arr[next[b]++] = v;
+            }
+        }
+
+        if (shift == 0) return;
+        int start = low;
+        for (int b = 0; b < RADIX; b++) {
+            if (end[b] - start > 1) msdRadixSort(arr, start, end[b] - 1, shift - RADIX_BITS);
+            start = end[b];
+        }
+    }
+
+    public static void msdRadixSort(long[] arr, int low, int high) {
+        msdRadixSort(arr, low, high, (Long.BYTES - 1) * RADIX_BITS);
+    }
+
+    private static void msdRadixSort(long[] arr, int low, int high, int shift) {
+        if (high - low + 1 <= INSERTION_CUTOFF) {
+            insertionSort(arr, low, high);
+            return;
+        }
+
+        int[] next = new int[RADIX];
+        for (int i = low; i <= high; i++)
+            next[(int) ((arr[i] ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK]++;
+        int[] end = new int[RADIX];
+        toOffsets(next, low);
+        for (int b = 0; b < RADIX - 1; b++) end[b] = next[b + 1];
+        end[RADIX - 1] = high + 1;
+
+        for (int b = 0; b < RADIX; b++) {
+            while (next[b] < end[b]) {
+                long v = arr[next[b]];
+                int d = (int) ((v ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK;
+                while (d != b) {
+                    long t = arr[next[d]];
+                    arr[next[d]++] = v;
+                    v = t;
+                    d = (int) ((v ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK;
+                }
+                arr[next[b]++] = v;
+            }
+        }
+
+        if (shift == 0) return;
+        int start = low;
+        for (int b = 0; b < RADIX; b++) {
+            if (end[b] - start > 1) msdRadixSort(arr, start, end[b] - 1, shift - RADIX_BITS);
+            start = end[b];
+        }
+    }
+
+/*External Merge Sort*/
+//External merge sort handles files bigger than RAM: read the file one memory-sized chunk at a time, sort each chunk with an in-memory sort and write it out as a sorted "run", then k-way merge the runs with a min-heap holding the smallest unread key of each run. Files hold raw big-endian ints or longs.
+    public static class ExternalSortConfig {
+        final long memoryBytes;          // bytes of keys sorted in memory at once (also split across merge buffers)
+        final int fanIn;                 // how many runs are merged in one pass
+        final java.nio.file.Path tempDir;
+
+        public ExternalSortConfig() {
+            this(64L << 20, 64, java.nio.file.Paths.get(System.getProperty("java.io.tmpdir")));
+        }
+
+        public ExternalSortConfig(long memoryBytes, int fanIn, java.nio.file.Path tempDir) {
+            if (memoryBytes < 4096) throw new IllegalArgumentException("memoryBytes must be at least 4096");
+            if (fanIn < 2) throw new IllegalArgumentException("fanIn must be at least 2");
+            this.memoryBytes = memoryBytes;
+            this.fanIn = fanIn;
+            this.tempDir = tempDir;
+        }
+    }
+
+    public static void externalSortInts(java.nio.file.Path input, java.nio.file.Path output,
+                                        ExternalSortConfig config) throws java.io.IOException {
+        externalSort(input, output, config, Integer.BYTES);
+    }
+
+    public static void externalSortLongs(java.nio.file.Path input, java.nio.file.Path output,
+                                         ExternalSortConfig config) throws java.io.IOException {
+        externalSort(input, output, config, Long.BYTES);
+    }
+
+    private static void externalSort(java.nio.file.Path input, java.nio.file.Path output,
+                                     ExternalSortConfig config, int width) throws java.io.IOException {
+        java.util.List<java.nio.file.Path> runs = createRuns(input, config, width);
+        // Outputs of the pass in progress; listed before they are written so a failed pass cleans them up too
+        java.util.List<java.nio.file.Path> merged = new java.util.ArrayList<>();
+        try {
+            // Merge fanIn runs at a time until one final pass can write the output
+            while (runs.size() > config.fanIn) {
+                for (int i = 0; i < runs.size(); i += config.fanIn) {
+                    java.util.List<java.nio.file.Path> group = runs.subList(i, Math.min(i + config.fanIn, runs.size()));
+                    java.nio.file.Path run = java.nio.file.Files.createTempFile(config.tempDir, "run", ".bin");
+                    merged.add(run);
+                    mergeRuns(group, run, config, width);
+                    for (java.nio.file.Path p : group) java.nio.file.Files.deleteIfExists(p);
+                }
+                runs = merged;
+                merged = new java.util.ArrayList<>();
+            }
+            mergeRuns(runs, output, config, width);
+        } finally {
+            for (java.nio.file.Path p : runs) java.nio.file.Files.deleteIfExists(p);
+            for (java.nio.file.Path p : merged) java.nio.file.Files.deleteIfExists(p);
+        }
+    }
+
+    // Stage 1: map the input chunk by chunk, sort each chunk in memory and write it as a run file
+    private static java.util.List<java.nio.file.Path> createRuns(java.nio.file.Path input, ExternalSortConfig config,
+                                                                 int width) throws java.io.IOException {
+        java.util.List<java.nio.file.Path> runs = new java.util.ArrayList<>();
+        try (java.nio.channels.FileChannel in = java.nio.channels.FileChannel.open(input, java.nio.file.StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size % width != 0) throw new IllegalArgumentException("File size is not a multiple of " + width + " bytes");
+
+            // A single mapping is limited to 2 GB, and so is a Java array
+            int chunkKeys = (int) Math.min(config.memoryBytes / width, (Integer.MAX_VALUE - 8) / width);
+            int[] ints = width == Integer.BYTES ? new int[(int) Math.min(chunkKeys, size / width)] : null;
+            long[] longs = width == Long.BYTES ? new long[(int) Math.min(chunkKeys, size / width)] : null;
+
+            for (long pos = 0; pos < size; pos += (long) chunkKeys * width) {
+                int count = (int) (Math.min((long) chunkKeys * width, size - pos) / width);
+                java.nio.MappedByteBuffer chunk = in.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, pos, (long) count * width);
+
+                java.nio.file.Path run = java.nio.file.Files.createTempFile(config.tempDir, "run", ".bin");
+                runs.add(run);
+                try (java.nio.channels.FileChannel out = java.nio.channels.FileChannel.open(run,
+                        java.nio.file.StandardOpenOption.READ, java.nio.file.StandardOpenOption.WRITE)) {
+                    java.nio.MappedByteBuffer target = out.map(java.nio.channels.FileChannel.MapMode.READ_WRITE, 0, (long) count * width);
+                    // introSort works in place, so the chunk array is the only memoryBytes-sized allocation
+                    if (ints != null) {
+                        chunk.asIntBuffer().get(ints, 0, count);
+                        introSort(ints, 0, count - 1);
+                        target.asIntBuffer().put(ints, 0, count);
+                    } else {
+                        chunk.asLongBuffer().get(longs, 0, count);
+                        introSort(longs, 0, count - 1);
+                        target.asLongBuffer().put(longs, 0, count);
+                    }
+                }
+            }
+        } catch (java.io.IOException | RuntimeException e) {
+            for (java.nio.file.Path p : runs) java.nio.file.Files.deleteIfExists(p);
+            throw e;
+        }
+        return runs;
+    }
+
+    // Stage 2: k-way merge; the heap holds one cursor per run, ordered by the cursor's current key
+    private static void mergeRuns(java.util.List<java.nio.file.Path> runs, java.nio.file.Path output,
+                                  ExternalSortConfig config, int width) throws java.io.IOException {
+        // Each run plus the output gets an equal share of the memory budget as its I/O buffer
+        int bufferBytes = (int) Math.max(4096, Math.min(1 << 24, config.memoryBytes / (runs.size() + 1)));
+        bufferBytes -= bufferBytes % Long.BYTES;
+
+        RunCursor[] heap = new RunCursor[runs.size()];
+        int size = 0;
+        try (java.nio.channels.FileChannel out = java.nio.channels.FileChannel.open(output,
+                java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.WRITE,
+                java.nio.file.StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (java.nio.file.Path run : runs) {
+                RunCursor cursor = new RunCursor(run, bufferBytes, width);
+                if (cursor.advance()) {
+                    heap[size] = cursor;
+                    cursorHeapifyUp(heap, size++);
+                } else {
+                    cursor.close();
+                }
+            }
+
+            java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocateDirect(bufferBytes);
+            while (size > 0) {
+                RunCursor min = heap[0];
+                if (buffer.remaining() < width) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) out.write(buffer);
+                    buffer.clear();
+                }
+                if (width == Integer.BYTES) buffer.putInt((int) min.head);
+                else buffer.putLong(min.head);
+
+                // Refill the root from the same run, or drop the run once it is exhausted
+                if (!min.advance()) {
+                    min.close();
+                    heap[0] = heap[--size];
+                    heap[size] = null;
+                }
+                cursorHeapifyDown(heap, size, 0);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) out.write(buffer);
+        } finally {
+            for (int i = 0; i < size; i++) heap[i].close();
+        }
+    }
+
+    private static void cursorHeapifyUp(RunCursor[] heap, int i) {
+        while (i > 0 && heap[(i - 1) / 2].head > heap[i].head) {
+            RunCursor tmp = heap[i];
+            heap[i] = heap[(i - 1) / 2];
+            heap[(i - 1) / 2] = tmp;
+            i = (i - 1) / 2;
+        }
+    }
+
+    private static void cursorHeapifyDown(RunCursor[] heap, int size, int i) {
+        while (true) {
+            int left = 2 * i + 1, right = 2 * i + 2, smallest = i;
+            if (left  < size && heap[left].head  < heap[smallest].head) smallest = left;
+            if (right < size && heap[right].head < heap[smallest].head) smallest = right;
+            if (smallest == i) break;
+            RunCursor tmp = heap[i];
+            heap[i] = heap[smallest];
+            heap[smallest] = tmp;
+            i = smallest;
+        }
+    }
+
+    // Buffered sequential reader over one run file; 'head' is the key most recently read
+    private static class RunCursor implements java.io.Closeable {
+        private final java.nio.channels.FileChannel channel;
+        private final java.nio.ByteBuffer buffer;
+        private final int width;
+        long head;
+
+        RunCursor(java.nio.file.Path run, int bufferBytes, int width) throws java.io.IOException {
+            this.channel = java.nio.channels.FileChannel.open(run, java.nio.file.StandardOpenOption.READ);
+            this.buffer = java.nio.ByteBuffer.allocateDirect(bufferBytes);
+            this.buffer.flip(); // start empty
+            this.width = width;
+        }
+
+        boolean advance() throws java.io.IOException {
+            if (buffer.remaining() < width) {
+                buffer.compact();
+                while (buffer.position() < width) {
+                    if (channel.read(buffer) < 0) {
+                        buffer.flip();
+                        return false;
+                    }
+                }
+                buffer.flip();
+            }
+            head = width == Integer.BYTES ? buffer.getInt() : buffer.getLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws java.io.IOException {
+            channel.close();
+        }
+    }
+
+/*Sorting Benchmarks (JMH)*/
+//Measured numbers to back up the Big-O table below. Each benchmark sorts a fresh copy of a pre-generated input; copyBaseline times the copy alone so it can be subtracted. Needs jmh-core and jmh-generator-annprocess on the classpath and the enclosing class in a named package; main() writes the results to sort-benchmarks.json.
+    public enum InputShape { RANDOM, SORTED, REVERSED, FEW_UNIQUE, NEARLY_SORTED, ORGAN_PIPE }
+
+    public static int[] generateInput(InputShape shape, int n, long seed) {
+        java.util.Random rnd = new java.util.Random(seed);
+        int[] arr = new int[n];
+        for (int i = 0; i < n; i++) {
+            switch (shape) {
+                case RANDOM:     arr[i] = rnd.nextInt(); break;
+                case REVERSED:   arr[i] = n - i; break;
+                case FEW_UNIQUE: arr[i] = rnd.nextInt(8); break;
+                case ORGAN_PIPE: arr[i] = i < n / 2 ? i : n - i; break;
+                default:         arr[i] = i; break; // SORTED, NEARLY_SORTED
+            }
+        }
+        if (shape == InputShape.NEARLY_SORTED && n > 0) {
+            // Swap about 1% of the elements with random partners
+            for (int k = 0; k < Math.max(1, n / 100); k++) {
+                swap(arr, rnd.nextInt(n), rnd.nextInt(n));
+            }
+        }
+        return arr;
+    }
+
+    // O(n log n) sorts, from 16 up to 10^7 elements
+    @org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Thread)
+    @org.openjdk.jmh.annotations.BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+    @org.openjdk.jmh.annotations.OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+    @org.openjdk.jmh.annotations.Warmup(iterations = 3, time = 1)
+    @org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 1)
+    @org.openjdk.jmh.annotations.Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+    public static class SortBenchmark {
+        @org.openjdk.jmh.annotations.Param({"16", "256", "4096", "65536", "1048576", "10000000"})
+        public int size;
+
+        @org.openjdk.jmh.annotations.Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "NEARLY_SORTED", "ORGAN_PIPE"})
+        public InputShape shape;
+
+        private int[] input;
+
+        @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Trial)
+        public void generate() {
+            input = generateInput(shape, size, 42);
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] copyBaseline() {
+            return input.clone();
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortMerge() {
+            int[] arr = input.clone();
+            mergeSort(arr, 0, arr.length - 1);
+            return arr;
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortParallelMerge() {
+            int[] arr = input.clone();
+            parallelMergeSort(arr, 0, arr.length - 1);
+            return arr;
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortHeap() {
+            int[] arr = input.clone();
+            heapSort(arr);
+            return arr;
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortIntro() {
+            int[] arr = input.clone();
+            introSort(arr, 0, arr.length - 1);
+            return arr;
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortIntroBlock() {
+            int[] arr = input.clone();
+            introSort(arr, 0, arr.length - 1, PartitionMode.BLOCK);
+            return arr;
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortRadix() {
+            int[] arr = input.clone();
+            radixSort(arr, 0, arr.length - 1);
+            return arr;
+        }
+    }
+
+    // O(n^2) sorts, capped at 16384 elements. Plain quickSort lives here too: sorted, reversed,
+    // few-unique and organ-pipe inputs hit its O(n^2) worst case and recurse n levels deep.
+    @org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Thread)
+    @org.openjdk.jmh.annotations.BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+    @org.openjdk.jmh.annotations.OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+    @org.openjdk.jmh.annotations.Warmup(iterations = 3, time = 1)
+    @org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 1)
+    @org.openjdk.jmh.annotations.Fork(value = 1, jvmArgsAppend = {"-Xss64m"})
+    public static class QuadraticSortBenchmark {
+        @org.openjdk.jmh.annotations.Param({"16", "256", "4096", "16384"})
+        public int size;
+
+        @org.openjdk.jmh.annotations.Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "NEARLY_SORTED", "ORGAN_PIPE"})
+        public InputShape shape;
+
+        private int[] input;
+
+        @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Trial)
+        public void generate() {
+            input = generateInput(shape, size, 42);
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] copyBaseline() {
+            return input.clone();
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortSelection() {
+            int[] arr = input.clone();
+            selectionSort(arr);
+            return arr;
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortBubble() {
+            int[] arr = input.clone();
+            bubbleSort(arr);
+            return arr;
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortInsertion() {
+            int[] arr = input.clone();
+            insertionSort(arr);
+            return arr;
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortQuick() {
+            int[] arr = input.clone();
+            quickSort(arr, 0, arr.length - 1);
+            return arr;
+        }
+    }
+
+    // Base cases on their own: the sorting network against insertion sort for the sizes it replaces it at
+    @org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Thread)
+    @org.openjdk.jmh.annotations.BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+    @org.openjdk.jmh.annotations.OutputTimeUnit(java.util.concurrent.TimeUnit.NANOSECONDS)
+    @org.openjdk.jmh.annotations.Warmup(iterations = 3, time = 1)
+    @org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 1)
+    @org.openjdk.jmh.annotations.Fork(1)
+    public static class SmallSortBenchmark {
+        @org.openjdk.jmh.annotations.Param({"4", "8", "12", "16"})
+        public int size;
+
+        // Many small random arrays back to back, so the branch predictor cannot learn one input
+        private int[][] inputs;
+        private int next;
+
+        @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Trial)
+        public void generate() {
+            inputs = new int[1024][];
+            for (int i = 0; i < inputs.length; i++) inputs[i] = generateInput(InputShape.RANDOM, size, i);
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortInsertion() {
+            int[] arr = inputs[next++ & 1023].clone();
+            insertionSort(arr, 0, arr.length - 1);
+            return arr;
+        }
+
+        @org.openjdk.jmh.annotations.Benchmark
+        public int[] sortNetwork() {
+            int[] arr = inputs[next++ & 1023].clone();
+            networkSort(arr, 0, arr.length - 1);
+            return arr;
+        }
+    }
+
+    // Runs every benchmark above and writes a JSON report (pass a regex to run a subset, e.g. "SortBenchmark.sortIntro")
+    public static void main(String[] args) throws org.openjdk.jmh.runner.RunnerException {
+        org.openjdk.jmh.runner.options.Options options = new org.openjdk.jmh.runner.options.OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "SortBenchmark")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .result("sort-benchmarks.json")
+                .build();
+        new org.openjdk.jmh.runner.Runner(options).run();
+    }
+
+/*Adaptive Sorter*/
+//Sorter turns the "WHICH SORT IS BEST" guide at the bottom of this file into code: it samples the input (size, how presorted it is, how many duplicates), routes to the sort the guide recommends for that shape, and reports what it picked and how long it took.
+    public enum SortAlgorithm { INSERTION, RUN_MERGE, INTRO, RADIX }
+
+    public static class SortProfile {
+        final int size;
+        final double runBreakRatio;  // sampled positions where the keys switch between rising and falling (≈ runs / n)
+        final double inversionRatio; // sampled far-apart pairs that are out of order (0 sorted, ~0.5 random, 1 reversed)
+        final double duplicateRatio; // sampled keys equal to another sampled key
+
+        SortProfile(int size, double runBreakRatio, double inversionRatio, double duplicateRatio) {
+            this.size = size;
+            this.runBreakRatio = runBreakRatio;
+            this.inversionRatio = inversionRatio;
+            this.duplicateRatio = duplicateRatio;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d runBreaks=%.3f inversions=%.3f duplicates=%.3f",
+                    size, runBreakRatio, inversionRatio, duplicateRatio);
+        }
+    }
+
+    public static class SortMetrics {
+        final SortAlgorithm algorithm;
+        final SortProfile profile;
+        final long profileNanos;
+        final long sortNanos;
+
+        SortMetrics(SortAlgorithm algorithm, SortProfile profile, long profileNanos, long sortNanos) {
+            this.algorithm = algorithm;
+            this.profile = profile;
+            this.profileNanos = profileNanos;
+            this.sortNanos = sortNanos;
+        }
+
+        @Override
+        public String toString() {
+            return algorithm + " in " + sortNanos / 1000 + " us (profiling " + profileNanos / 1000 + " us; " + profile + ")";
+        }
+    }
+
+    public static class Sorter {
+        private static final int WINDOWS = 32;       // contiguous windows checked for run breaks
+        private static final int WINDOW_LENGTH = 32;
+        private static final int SAMPLE = 128;       // spread-out keys checked for inversions and duplicates
+        private static final int RADIX_MIN_SIZE = 1 << 16;
+
+        public static SortMetrics sort(int[] arr) {
+            return sort(arr, 0, arr.length - 1);
+        }
+
+        public static SortMetrics sort(int[] arr, int low, int high) {
+            long start = System.nanoTime();
+            SortProfile profile = profile(arr, low, high);
+            SortAlgorithm algorithm = choose(profile);
+            long sorted = System.nanoTime();
+            switch (algorithm) {
+                case INSERTION: insertionSort(arr, low, high); break;
+                case RUN_MERGE: naturalMergeSort(arr, low, high); break;
+                case RADIX:     radixSort(arr, low, high); break;
+                default:        introSort(arr, low, high); break;
+            }
+            return new SortMetrics(algorithm, profile, sorted - start, System.nanoTime() - sorted);
+        }
+
+        // Reads at most WINDOWS * WINDOW_LENGTH + SAMPLE keys, whatever the input size
+        public static SortProfile profile(int[] arr, int low, int high) {
+            int n = Math.max(0, high - low + 1);
+            if (n < 2) return new SortProfile(n, 0, 0, 0);
+
+            // Rising-to-falling switches inside evenly spaced windows estimate how many runs there are
+            int windows = Math.min(WINDOWS, Math.max(1, n / WINDOW_LENGTH));
+            int length = Math.min(WINDOW_LENGTH, n);
+            int breaks = 0, checked = 0;
+            for (int w = 0; w < windows; w++) {
+                int from = low + (int) ((long) w * (n - length) / Math.max(1, windows - 1));
+                for (int i = from + 1; i < from + length - 1; i++) {
+                    if ((arr[i - 1] < arr[i] && arr[i] > arr[i + 1]) || (arr[i - 1] > arr[i] && arr[i] < arr[i + 1])) breaks++;
+                    checked++;
+                }
+            }
+
+            // Inversions among keys taken at an even stride across the whole range
+            int m = Math.min(SAMPLE, n);
+            int[] sample = new int[m];
+            for (int i = 0; i < m; i++) sample[i] = arr[low + (int) ((long) i * (n - 1) / Math.max(1, m - 1))];
+            long inversions = 0;
+            for (int i = 0; i < m; i++)
+                for (int j = i + 1; j < m; j++)
+                    if (sample[i] > sample[j]) inversions++;
+
+            // Duplicates show up as equal neighbours once the sample is sorted
+            insertionSort(sample, 0, m - 1);
+            int duplicates = 0;
+            for (int i = 1; i < m; i++)
+                if (sample[i] == sample[i - 1]) duplicates++;
+
+            return new SortProfile(n, checked == 0 ? 0 : (double) breaks / checked,
+                    m < 2 ? 0 : inversions / (m * (m - 1) / 2.0), m < 2 ? 0 : (double) duplicates / (m - 1));
+        }
+
+        public static SortAlgorithm choose(SortProfile p) {
+            // Small, or small and nearly sorted: insertion sort is O(n + inversions)
+            if (p.size <= INSERTION_CUTOFF) return SortAlgorithm.INSERTION;
+            if (p.size <= 1024 && p.inversionRatio < 0.01) return SortAlgorithm.INSERTION;
+
+            // Long ascending or descending stretches: merging runs beats partitioning them
+            if (p.runBreakRatio < 0.1) return SortAlgorithm.RUN_MERGE;
+
+            // Many equal keys: the 3-way partition finishes each group of them in one pass
+            if (p.duplicateRatio > 0.5) return SortAlgorithm.INTRO;
+
+            // Large and shapeless: a handful of linear radix passes beat n log n comparisons
+            if (p.size >= RADIX_MIN_SIZE) return SortAlgorithm.RADIX;
+            return SortAlgorithm.INTRO;
+        }
+    }
+
+/*Natural Merge Sort (TimSort-style)*/
+//Natural merge sort merges the runs the input already has instead of always splitting at the midpoint: ascending runs are kept, strictly descending runs are reversed in place, short runs are topped up with binary insertion sort, and merges "gallop" (copy whole blocks found by exponential search) when one run keeps winning. Already-sorted input costs a single O(n) scan.
+    private static final int MIN_MERGE = 32; // runs shorter than about this are extended with binary insertion sort
+    private static final int MIN_GALLOP = 7; // wins in a row before a merge switches to galloping
+
+    public static void naturalMergeSort(int[] arr, int low, int high) {
+        int n = high - low + 1;
+        if (n < 2) return;
+        if (n < MIN_MERGE) {
+            int run = countRunAndMakeAscending(arr, low, high);
+            binaryInsertionSort(arr, low, high, low + run);
+            return;
+        }
+
+        RunMerger merger = new RunMerger(arr);
+        int minRun = minRunLength(n);
+        int lo = low;
+        while (lo <= high) {
+            int run = countRunAndMakeAscending(arr, lo, high);
+
+            // Extend a short run to minRun so the merge tree stays balanced
+            if (run < minRun) {
+                int force = Math.min(minRun, high - lo + 1);
+                binaryInsertionSort(arr, lo, lo + force - 1, lo + run);
+                run = force;
+            }
+
+            merger.pushRun(lo, run);
+            merger.mergeCollapse();
+            lo += run;
+        }
+        merger.mergeForceCollapse();
+    }
+
+    // Length of the run starting at arr[lo]; a strictly descending run is reversed so it ascends
+    private static int countRunAndMakeAscending(int[] arr, int lo, int high) {
+        int i = lo + 1;
+        if (i > high) return 1;
+        if (arr[i] < arr[lo]) {
+            while (i < high && arr[i + 1] < arr[i]) i++;
+            for (int l = lo, r = i; l < r; l++, r--) swap(arr, l, r);
+        } else {
+            while (i < high && arr[i + 1] >= arr[i]) i++;
+        }
+        return i - lo + 1;
+    }
+
+    // Insertion sort of arr[lo..hi] where arr[lo..start-1] is already sorted; binary search finds each slot
+    private static void binaryInsertionSort(int[] arr, int lo, int hi, int start) {
+        for (int i = Math.max(start, lo + 1); i <= hi; i++) {
+            int key = arr[i];
+            int left = lo, right = i;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (key < arr[mid]) right = mid;
+                else left = mid + 1;
+            }
+            System.arraycopy(arr, left, arr, left + 1, i - left);
+            arr[left] = key;
+        }
+    }
+
+    // Picks minRun in [16, 32] so that n / minRun is a power of two or just below one
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    // Number of leading keys in a[base..base+len-1] that are < key (or <= key), by exponential then binary search
+    private static int gallopPrefix(int key, int[] a, int base, int len, boolean orEqual) {
+        int last = 0, ofs = 0;
+        while (ofs < len && (a[base + ofs] < key || (orEqual && a[base + ofs] == key))) {
+            last = ofs + 1;
+            ofs = (ofs << 1) + 1;
+            if (ofs < 0) ofs = len; // int overflow
+        }
+        int lo = last, hi = Math.min(ofs, len);
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[base + mid] < key || (orEqual && a[base + mid] == key)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Number of trailing keys in a[base..base+len-1] that are > key (or >= key), searching from the end
+    private static int gallopSuffix(int key, int[] a, int base, int len, boolean orEqual) {
+        int end = base + len - 1;
+        int last = 0, ofs = 0;
+        while (ofs < len && (a[end - ofs] > key || (orEqual && a[end - ofs] == key))) {
+            last = ofs + 1;
+            ofs = (ofs << 1) + 1;
+            if (ofs < 0) ofs = len; // int overflow
+        }
+        int lo = last, hi = Math.min(ofs, len);
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[end - mid] > key || (orEqual && a[end - mid] == key)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Stack of pending runs plus one reusable merge buffer, sized to the shorter run of the biggest merge
+    private static class RunMerger {
+        private final int[] arr;
+        private int[] tmp = new int[256];
+        private final int[] runBase = new int[64];
+        private final int[] runLen = new int[64];
+        private int stackSize = 0;
+
+        RunMerger(int[] arr) {
+            this.arr = arr;
+        }
+
+        void pushRun(int base, int len) {
+            runBase[stackSize] = base;
+            runLen[stackSize] = len;
+            stackSize++;
+        }
+
+        // Keeps run lengths shrinking at least as fast as Fibonacci numbers, so the stack stays O(log n)
+        void mergeCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if ((n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1])
+                        || (n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1])) {
+                    if (runLen[n - 1] < runLen[n + 1]) n--;
+                } else if (runLen[n] > runLen[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        void mergeForceCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLen[n - 1] < runLen[n + 1]) n--;
+                mergeAt(n);
+            }
+        }
+
+        // Merges stack entries i and i + 1
+        private void mergeAt(int i) {
+            int base1 = runBase[i], len1 = runLen[i];
+            int base2 = runBase[i + 1], len2 = runLen[i + 1];
+            runLen[i] = len1 + len2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLen[i + 1] = runLen[i + 2];
+            }
+            stackSize--;
+
+            // Keys of run 1 that are <= run 2's first key, and keys of run 2 that are >= run 1's last key, are already in place
+            int k = gallopPrefix(arr[base2], arr, base1, len1, true);
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) return;
+            len2 -= gallopSuffix(arr[base1 + len1 - 1], arr, base2, len2, true);
+            if (len2 == 0) return;
+
+            if (len1 <= len2) mergeLo(base1, len1, base2, len2);
+            else mergeHi(base1, len1, base2, len2);
+        }
+
+        // Copies the shorter run 1 out and merges left to right
+        private void mergeLo(int base1, int len1, int base2, int len2) {
+            ensureCapacity(len1);
+            System.arraycopy(arr, base1, tmp, 0, len1);
+            int c1 = 0, end1 = len1;
+            int c2 = base2, end2 = base2 + len2;
+            int dest = base1;
+
+            while (c1 < end1 && c2 < end2) {
+                // One key at a time until one side wins MIN_GALLOP times in a row
+                int wins1 = 0, wins2 = 0;
+                while (c1 < end1 && c2 < end2 && wins1 < MIN_GALLOP && wins2 < MIN_GALLOP) {
+                    if (arr[c2] < tmp[c1]) {
+                        arr[dest++] = arr[c2++];
+                        wins2++;
+                        wins1 = 0;
+                    } else {
+                        arr[dest++] = tmp[c1++];
+                        wins1++;
+                        wins2 = 0;
+                    }
+                }
+
+                // Galloping: copy whole blocks while they stay long
+                while (c1 < end1 && c2 < end2) {
+                    int n1 = gallopPrefix(arr[c2], tmp, c1, end1 - c1, true);
+                    System.arraycopy(tmp, c1, arr, dest, n1);
+                    dest += n1;
+                    c1 += n1;
+                    if (c1 == end1) break;
+
+                    int n2 = gallopPrefix(tmp[c1], arr, c2, end2 - c2, false);
+                    System.arraycopy(arr, c2, arr, dest, n2);
+                    dest += n2;
+                    c2 += n2;
+                    if (n1 < MIN_GALLOP && n2 < MIN_GALLOP) break;
+                }
+            }
+            // Whatever is left of run 2 is already in place
+            System.arraycopy(tmp, c1, arr, dest, end1 - c1);
+        }
+
+        // Copies the shorter run 2 out and merges right to left
+        private void mergeHi(int base1, int len1, int base2, int len2) {
+            ensureCapacity(len2);
+            System.arraycopy(arr, base2, tmp, 0, len2);
+            int c1 = base1 + len1 - 1;
+            int c2 = len2 - 1;
+            int dest = base2 + len2 - 1;
+
+            while (c1 >= base1 && c2 >= 0) {
+                int wins1 = 0, wins2 = 0;
+                while (c1 >= base1 && c2 >= 0 && wins1 < MIN_GALLOP && wins2 < MIN_GALLOP) {
+                    if (tmp[c2] < arr[c1]) {
+                        arr[dest--] = arr[c1--];
+                        wins1++;
+                        wins2 = 0;
+                    } else {
+                        arr[dest--] = tmp[c2--];
+                        wins2++;
+                        wins1 = 0;
+                    }
+                }
+
+                while (c1 >= base1 && c2 >= 0) {
+                    int n1 = gallopSuffix(tmp[c2], arr, base1, c1 - base1 + 1, false);
+                    dest -= n1;
+                    c1 -= n1;
+                    System.arraycopy(arr, c1 + 1, arr, dest + 1, n1);
+                    if (c1 < base1) break;
+
+                    int n2 = gallopSuffix(arr[c1], tmp, 0, c2 + 1, true);
+                    dest -= n2;
+                    c2 -= n2;
+                    System.arraycopy(tmp, c2 + 1, arr, dest + 1, n2);
+                    if (n1 < MIN_GALLOP && n2 < MIN_GALLOP) break;
+                }
+            }
+            // Whatever is left of run 1 is already in place
+            System.arraycopy(tmp, 0, arr, dest - c2, c2 + 1);
+        }
+
+        private void ensureCapacity(int needed) {
+            if (tmp.length < needed) tmp = new int[Math.max(needed, tmp.length * 2)];
+        }
+    }
+
+/*Introsort for long[] and double[]*/
+//The same introsort written out again per primitive type, so records keyed by long or double never go through boxed arrays and Comparator<Object>. For double[], NaNs go to the end and -0.0 sorts before 0.0, matching Arrays.sort.
+    public static void introSort(long[] arr, int low, int high) {
+        if (low >= high) return;
+        introSort(arr, low, high, 2 * (31 - Integer.numberOfLeadingZeros(high - low + 1)));
+    }
+
+    private static void introSort(long[] arr, int low, int high, int depthLimit) {
+        while (high - low + 1 > INSERTION_CUTOFF) {
+            if (depthLimit-- == 0) {
+                heapSort(arr, low, high);
+                return;
+            }
+            long pivot = arr[choosePivot(arr, low, high)];
+
+            int lt = low, i = low, gt = high;
+            while (i <= gt) {
+                if (arr[i] < pivot) swap(arr, lt++, i++);
+                else if (arr[i] > pivot) swap(arr, i, gt--);
+                else i++;
+            }
+
+            if (lt - low < high - gt) {
+                introSort(arr, low, lt - 1, depthLimit);
+                low = gt + 1;
+            } else {
+                introSort(arr, gt + 1, high, depthLimit);
+                high = lt - 1;
+            }
+        }
+        insertionSort(arr, low, high);
+    }
+
+    private static void heapSort(long[] arr, int low, int high) {
+        int n = high - low + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) heapifyDown(arr, low, n, i);
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, low, low + end);
+            heapifyDown(arr, low, end, 0);
+        }
+    }
+
+    private static void heapifyDown(long[] arr, int low, int size, int i) {
+        while (true) {
+            int left = 2 * i + 1, right = 2 * i + 2, largest = i;
+            if (left  < size && arr[low + left]  > arr[low + largest]) largest = left;
+            if (right < size && arr[low + right] > arr[low + largest]) largest = right;
+            if (largest == i) break;
+            swap(arr, low + i, low + largest);
+            i = largest;
+        }
+    }
+
+    private static int choosePivot(long[] arr, int low, int high) {
+        int mid = (low + high) >>> 1;
+        if (high - low < 128) return medianOfThree(arr, low, mid, high);
+        int step = (high - low) / 8;
+        int a = medianOfThree(arr, low, low + step, low + 2 * step);
+        int b = medianOfThree(arr, mid - step, mid, mid + step);
+        int c = medianOfThree(arr, high - 2 * step, high - step, high);
+        return medianOfThree(arr, a, b, c);
+    }
+
+    private static int medianOfThree(long[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) return b;
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[a] < arr[c]) return a;
+        return arr[b] < arr[c] ? c : b;
+    }
+
+    private static void swap(long[] arr, int i, int j) {
+        long temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    public static void introSort(double[] arr, int low, int high) {
+        // NaN compares false with everything, so move all NaNs past the end first
+        int end = high;
+        int negativeZeros = 0;
+        for (int k = high; k >= low; k--) {
+            double v = arr[k];
+            if (v != v) {
+                arr[k] = arr[end];
+                arr[end--] = v;
+            } else if (v == 0.0 && Double.doubleToRawLongBits(v) < 0) {
+                // -0.0 == 0.0 for '<', so count them now and put them back in front of the zeros afterwards
+                arr[k] = 0.0;
+                negativeZeros++;
+            }
+        }
+
+        if (low < end) introSort(arr, low, end, 2 * (31 - Integer.numberOfLeadingZeros(end - low + 1)));
+
+        if (negativeZeros > 0) {
+            // First 0.0 by binary search; the -0.0s take the first slots of the zero block
+            int lo = low, hi = end + 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (arr[mid] < 0.0) lo = mid + 1;
+                else hi = mid;
+            }
+            for (int k = lo; k < lo + negativeZeros; k++) arr[k] = -0.0;
+        }
+    }
+
+    private static void introSort(double[] arr, int low, int high, int depthLimit) {
+        while (high - low + 1 > INSERTION_CUTOFF) {
+            if (depthLimit-- == 0) {
+                heapSort(arr, low, high);
+                return;
+            }
+            double pivot = arr[choosePivot(arr, low, high)];
+
+            int lt = low, i = low, gt = high;
+            while (i <= gt) {
+                if (arr[i] < pivot) swap(arr, lt++, i++);
+                else if (arr[i] > pivot) swap(arr, i, gt--);
+                else i++;
+            }
+
+            if (lt - low < high - gt) {
+                introSort(arr, low, lt - 1, depthLimit);
+                low = gt + 1;
+            } else {
+                introSort(arr, gt + 1, high, depthLimit);
+                high = lt - 1;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            double key = arr[i];
+            int j = i - 1;
+            while (j >= low && arr[j] > key) {
+                arr[j + 1] = arr[j];
+                j = j - 1;
+            }
+            arr[j + 1] = key;
+        }
+    }
+
+    // Only called on NaN-free ranges
+    private static void heapSort(double[] arr, int low, int high) {
+        int n = high - low + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) heapifyDown(arr, low, n, i);
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, low, low + end);
+            heapifyDown(arr, low, end, 0);
+        }
+    }
+
+    private static void heapifyDown(double[] arr, int low, int size, int i) {
+        while (true) {
+            int left = 2 * i + 1, right = 2 * i + 2, largest = i;
+            if (left  < size && arr[low + left]  > arr[low + largest]) largest = left;
+            if (right < size && arr[low + right] > arr[low + largest]) largest = right;
+            if (largest == i) break;
+            swap(arr, low + i, low + largest);
+            i = largest;
+        }
+    }
+
+    private static int choosePivot(double[] arr, int low, int high) {
+        int mid = (low + high) >>> 1;
+        if (high - low < 128) return medianOfThree(arr, low, mid, high);
+        int step = (high - low) / 8;
+        int a = medianOfThree(arr, low, low + step, low + 2 * step);
+        int b = medianOfThree(arr, mid - step, mid, mid + step);
+        int c = medianOfThree(arr, high - 2 * step, high - step, high);
+        return medianOfThree(arr, a, b, c);
+    }
+
+    private static int medianOfThree(double[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) return b;
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[a] < arr[c]) return a;
+        return arr[b] < arr[c] ? c : b;
+    }
+
+    private static void swap(double[] arr, int i, int j) {
+        double temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+/*Sort By Key (argsort)*/
+//Sorts a key array and moves a parallel int[] payload (row ids, indices into other arrays) in step with it, like sorting records without ever creating record objects. It is the LSD radix sort from above carrying a second array along, so it is stable: equal keys keep their payload order.
+    public static void sortByKey(int[] keys, int[] payload, int low, int high) {
+        int n = high - low + 1;
+        if (n <= INSERTION_CUTOFF) {
+            for (int i = low + 1; i <= high; i++) {
+                int key = keys[i], value = payload[i];
+                int j = i - 1;
+                while (j >= low && keys[j] > key) {
+                    keys[j + 1] = keys[j];
+                    payload[j + 1] = payload[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                payload[j + 1] = value;
+            }
+            return;
+        }
+
+        int[][] counts = java.util.concurrent.ForkJoinPool.commonPool()
+                .invoke(new HistogramTask(keys, null, low, high, Integer.BYTES));
+
+        int[] srcKeys = keys, srcPayload = payload;
+        int[] dstKeys = new int[n], dstPayload = new int[n];
+        int srcOff = low, dstOff = 0;
+        for (int pass = 0; pass < Integer.BYTES; pass++) {
+            int shift = pass * RADIX_BITS;
+            int[] count = counts[pass];
+            if (count[((srcKeys[srcOff] ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK] == n) continue;
+
+            toOffsets(count, dstOff);
+            for (int i = srcOff; i < srcOff + n; i++) {
+                int v = srcKeys[i];
+                int slot = count[((v ^ Integer.MIN_VALUE) >>> shift) & RADIX_MASK]++;
+                dstKeys[slot] = v;
+                dstPayload[slot] = srcPayload[i];
+            }
+
+            int[] t = srcKeys; srcKeys = dstKeys; dstKeys = t;
+            t = srcPayload; srcPayload = dstPayload; dstPayload = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, srcOff, keys, low, n);
+            System.arraycopy(srcPayload, srcOff, payload, low, n);
+        }
+    }
+
+    public static void sortByKey(long[] keys, int[] payload, int low, int high) {
+        int n = high - low + 1;
+        if (n <= INSERTION_CUTOFF) {
+            for (int i = low + 1; i <= high; i++) {
+                long key = keys[i];
+                int value = payload[i];
+                int j = i - 1;
+                while (j >= low && keys[j] > key) {
+                    keys[j + 1] = keys[j];
+                    payload[j + 1] = payload[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                payload[j + 1] = value;
+            }
+            return;
+        }
+
+        int[][] counts = java.util.concurrent.ForkJoinPool.commonPool()
+                .invoke(new HistogramTask(null, keys, low, high, Long.BYTES));
+
+        long[] srcKeys = keys, dstKeys = new long[n];
+        int[] srcPayload = payload, dstPayload = new int[n];
+        int srcOff = low, dstOff = 0;
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+            int shift = pass * RADIX_BITS;
+            int[] count = counts[pass];
+            if (count[(int) ((srcKeys[srcOff] ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK] == n) continue;
+
+            toOffsets(count, dstOff);
+            for (int i = srcOff; i < srcOff + n; i++) {
+                long v = srcKeys[i];
+                int slot = count[(int) ((v ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK]++;
+                dstKeys[slot] = v;
+                dstPayload[slot] = srcPayload[i];
+            }
+
+            long[] t = srcKeys; srcKeys = dstKeys; dstKeys = t;
+            int[] p = srcPayload; srcPayload = dstPayload; dstPayload = p;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, srcOff, keys, low, n);
+            System.arraycopy(srcPayload, srcOff, payload, low, n);
+        }
+    }
+
+    // Indices that would sort keys (keys itself is left untouched): keys[result[0]] is the smallest
+    public static int[] argsort(int[] keys) {
+        int[] order = new int[keys.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        sortByKey(keys.clone(), order, 0, keys.length - 1);
+        return order;
+    }
+
+    public static int[] argsort(long[] keys) {
+        int[] order = new int[keys.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        sortByKey(keys.clone(), order, 0, keys.length - 1);
+        return order;
+    }
+
+/*Quickselect (introselect)*/
+//Quickselect finds the k-th smallest element (k is an index into the sorted order) without sorting everything: partition once, then keep only the side that contains index k, so on average it is O(n). The median-of-three pivot is swapped into arr[high] so the partition() from quick sort does the work; if a few rounds fail to cut the range by a quarter, the pivot switches to median-of-medians with a 3-way split, which guarantees O(n) even on all-equal input.
+    public static int select(int[] arr, int k) {
+        return select(arr, 0, arr.length - 1, k);
+    }
+
+    // Leaves arr[k] holding the value it would have after sorting arr[low..high], smaller values before it and larger after
+    public static int select(int[] arr, int low, int high, int k) {
+        if (k < low || k > high) throw new IndexOutOfBoundsException("k = " + k + " is outside [" + low + ", " + high + "]");
+        int badRounds = 0;
+
+        while (high - low + 1 > INSERTION_CUTOFF) {
+            int size = high - low + 1;
+            if (badRounds < 3) {
+                swap(arr, choosePivot(arr, low, high), high);
+                int p = partition(arr, low, high);
+                if (k == p) return arr[k];
+                if (k < p) high = p - 1;
+                else low = p + 1;
+            } else {
+                int pivot = arr[medianOfMedians(arr, low, high)];
+                int lt = low, i = low, gt = high;
+                while (i <= gt) {
+                    if (arr[i] < pivot) swap(arr, lt++, i++);
+                    else if (arr[i] > pivot) swap(arr, i, gt--);
+                    else i++;
+                }
+                if (k < lt) high = lt - 1;
+                else if (k > gt) low = gt + 1;
+                else return pivot;
+            }
+            // A round that keeps more than 3/4 of the range counts against the fast path
+            if (high - low + 1 > size - size / 4) badRounds++;
+        }
+        insertionSort(arr, low, high);
+        return arr[k];
+    }
+
+    // Index of a pivot guaranteed to have at least ~30% of the range on each side
+    private static int medianOfMedians(int[] arr, int low, int high) {
+        if (high - low < 5) {
+            insertionSort(arr, low, high);
+            return (low + high) >>> 1;
+        }
+        // Median of each group of five, gathered at the front of the range
+        int m = low;
+        for (int i = low; i <= high; i += 5) {
+            int end = Math.min(i + 4, high);
+            insertionSort(arr, i, end);
+            swap(arr, m++, (i + end) >>> 1);
+        }
+        int mid = (low + m - 1) >>> 1;
+        select(arr, low, m - 1, mid);
+        return mid;
+    }
+
+/*Partial Sort*/
+//Partial sort puts the k smallest elements, in order, at the front of the array: one select to split them off, then sort just those k. O(n + k log k) instead of O(n log n).
+    public static void partialSort(int[] arr, int k) {
+        int n = arr.length;
+        if (k <= 0) return;
+        if (k < n) select(arr, 0, n - 1, k - 1);
+        introSort(arr, 0, Math.min(k, n) - 1);
+    }
+
+/*Streaming Top-K*/
+//For data that arrives one value at a time (or does not fit in an array), keep a heap of only the k best values seen so far, like MinHeapPriorityQueue but bounded: for the k largest the root is the smallest kept value, and anything bigger replaces it. O(n log k) time, O(k) space. Results come back best first.
+    public static int[] topK(java.util.PrimitiveIterator.OfInt values, int k) {
+        return boundedHeapSelect(values, k, true);
+    }
+
+    public static int[] bottomK(java.util.PrimitiveIterator.OfInt values, int k) {
+        return boundedHeapSelect(values, k, false);
+    }
+
+    private static int[] boundedHeapSelect(java.util.PrimitiveIterator.OfInt values, int k, boolean largest) {
+        if (k < 0) throw new IllegalArgumentException("k must be non-negative");
+        int[] heap = new int[k];
+        int size = 0;
+        while (values.hasNext() && k > 0) {
+            int x = values.nextInt();
+            if (size < k) {
+                // bubble up
+                int i = size++;
+                heap[i] = x;
+                while (i > 0 && keptWorse(heap[i], heap[(i - 1) / 2], largest)) {
+                    swap(heap, i, (i - 1) / 2);
+                    i = (i - 1) / 2;
+                }
+            } else if (keptWorse(heap[0], x, largest)) {
+                heap[0] = x;
+                boundedHeapifyDown(heap, size, 0, largest);
+            }
+        }
+
+        // Pop the worst kept value each time and fill the result from the back
+        int[] result = new int[size];
+        for (int end = size - 1; end >= 0; end--) {
+            result[end] = heap[0];
+            heap[0] = heap[end];
+            boundedHeapifyDown(heap, end, 0, largest);
+        }
+        return result;
+    }
+
+    // True if a ranks below b: smaller when keeping the largest, larger when keeping the smallest
+    private static boolean keptWorse(int a, int b, boolean largest) {
+        return largest ? a < b : a > b;
+    }
+
+    private static void boundedHeapifyDown(int[] heap, int size, int i, boolean largest) {
+        while (true) {
+            int left = 2 * i + 1, right = 2 * i + 2, worst = i;
+            if (left  < size && keptWorse(heap[left],  heap[worst], largest)) worst = left;
+            if (right < size && keptWorse(heap[right], heap[worst], largest)) worst = right;
+            if (worst == i) break;
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+/*Sorting Networks*/
+//A sorting network is a fixed list of compare-exchange steps that sorts any input of one size. There are no data-dependent branches: each step is a min and a max, which the JIT can turn into conditional moves, so tiny ranges (up to 16) sort without the branch mispredictions of insertion sort. The networks are Batcher's odd-even merge sort for 16 inputs, with the steps that touch positions >= n dropped.
+    private static final int NETWORK_MAX = 16;
+    private static final int[][] SORTING_NETWORKS = buildSortingNetworks();
+
+    public static void networkSort(int[] arr, int low, int high) {
+        int n = high - low + 1;
+        if (n < 2) return;
+        int[] steps = SORTING_NETWORKS[n];
+        for (int s = 0; s < steps.length; s += 2) {
+            int i = low + steps[s], j = low + steps[s + 1];
+            int x = arr[i], y = arr[j];
+            arr[i] = Math.min(x, y);
+            arr[j] = Math.max(x, y);
+        }
+    }
+
+    // SORTING_NETWORKS[n] holds index pairs (i, j), i < j, to compare-exchange in order
+    private static int[][] buildSortingNetworks() {
+        int[][] networks = new int[NETWORK_MAX + 1][];
+        for (int n = 0; n <= NETWORK_MAX; n++) {
+            java.util.List<Integer> steps = new java.util.ArrayList<>();
+            for (int p = 1; p < NETWORK_MAX; p <<= 1)
+                for (int k = p; k >= 1; k >>= 1)
+                    for (int j = k % p; j + k < NETWORK_MAX; j += 2 * k)
+                        for (int i = 0; i < k && i + j + k < NETWORK_MAX; i++)
+                            if ((i + j) / (2 * p) == (i + j + k) / (2 * p) && i + j + k < n) {
+                                steps.add(i + j);
+                                steps.add(i + j + k);
+                            }
+            networks[n] = new int[steps.size()];
+            for (int s = 0; s < steps.size(); s++) networks[n][s] = steps.get(s);
+        }
+        return networks;
+    }
+
+    // Base case shared by the recursive sorts: a network for up to 16 keys, insertion sort above that
+    private static void sortSmallRange(int[] arr, int low, int high) {
+        if (high - low < NETWORK_MAX) networkSort(arr, low, high);
+        else insertionSort(arr, low, high);
+    }
+
+/*Block Partition (BlockQuicksort)*/
+//Block partitioning splits the classic Hoare scan into two phases: first record, without branching, the offsets of misplaced keys in a 64-key block from each end, then swap them in pairs. The comparisons no longer decide which way the code jumps, so random input stops costing a branch misprediction per key. introSort(arr, low, high, PartitionMode.BLOCK) uses it; runs of equal keys are skipped the way pdqsort does, by partitioning "<= pivot" to the left when the pivot equals the key just before the range.
+    public enum PartitionMode { DUTCH_FLAG, BLOCK }
+
+    private static final int BLOCK = 64;
+
+    public static void introSort(int[] arr, int low, int high, PartitionMode mode) {
+        if (mode == PartitionMode.DUTCH_FLAG) {
+            introSort(arr, low, high);
+            return;
+        }
+        if (low >= high) return;
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(high - low + 1));
+        blockIntroSort(arr, low, high, depthLimit, true, new int[BLOCK], new int[BLOCK]);
+    }
+
+    private static void blockIntroSort(int[] arr, int low, int high, int depthLimit, boolean leftmost,
+                                       int[] offsetsL, int[] offsetsR) {
+        while (high - low + 1 > INSERTION_CUTOFF) {
+            if (depthLimit-- == 0) {
+                heapSort(arr, low, high);
+                return;
+            }
+            int pivotIndex = choosePivot(arr, low, high);
+            int pivot = arr[pivotIndex];
+
+            // arr[low - 1] is an earlier pivot, so nothing here is smaller; if it equals this pivot,
+            // every key equal to it is already final: move them to the left and carry on past them
+            if (!leftmost && arr[low - 1] == pivot) {
+                if (pivot == Integer.MAX_VALUE) return;
+                low = blockPartition(arr, low, high, pivot + 1, offsetsL, offsetsR);
+                continue;
+            }
+
+            swap(arr, pivotIndex, high);
+            int p = blockPartition(arr, low, high - 1, pivot, offsetsL, offsetsR);
+            swap(arr, p, high);
+
+            if (p - low < high - p) {
+                blockIntroSort(arr, low, p - 1, depthLimit, leftmost, offsetsL, offsetsR);
+                low = p + 1;
+                leftmost = false;
+            } else {
+                blockIntroSort(arr, p + 1, high, depthLimit, false, offsetsL, offsetsR);
+                high = p - 1;
+            }
+        }
+        sortSmallRange(arr, low, high);
+    }
+
+    // Moves keys < bound to the front of arr[low..high]; returns the index of the first key >= bound
+    private static int blockPartition(int[] arr, int low, int high, int bound, int[] offsetsL, int[] offsetsR) {
+        int l = low, r = high;
+        int startL = 0, numL = 0, startR = 0, numR = 0;
+
+        while (r - l + 1 > 2 * BLOCK) {
+            // Branch-free: always store the offset, only advance the count when the key is misplaced
+            if (numL == 0) {
+                startL = 0;
+                for (int i = 0; i < BLOCK; i++) {
+                    offsetsL[numL] = i;
+                    numL += arr[l + i] >= bound ? 1 : 0;
+                }
+            }
+            if (numR == 0) {
+                startR = 0;
+                for (int i = 0; i < BLOCK; i++) {
+                    offsetsR[numR] = i;
+                    numR += arr[r - i] < bound ? 1 : 0;
+                }
+            }
+
+            int num = Math.min(numL, numR);
+            for (int i = 0; i < num; i++) {
+                swap(arr, l + offsetsL[startL + i], r - offsetsR[startR + i]);
+            }
+            numL -= num;
+            numR -= num;
+            startL += num;
+            startR += num;
+            if (numL == 0) l += BLOCK;
+            if (numR == 0) r -= BLOCK;
+        }
+
+        // At most 2 * BLOCK keys are left in arr[l..r]; finish them with a plain scan
+        int i = l - 1;
+        for (int j = l; j <= r; j++) {
+            if (arr[j] < bound) swap(arr, ++i, j);
+        }
+        return i + 1;
+    }
+
 
 
  *
@@ -170,7 +1957,12 @@ Answer is D. Steps - Take pivot as first element
  * | Insertion Sort | O(n)                    | O(n^2)                  | O(n^2)                  |
  * | Quick Sort     | O(n log n)              | O(n log n)              | O(n^2)**                |
  * | Merge Sort     | O(n log n)              | O(n log n)              | O(n log n)              |
+ * | Heap Sort      | O(n log n)              | O(n log n)              | O(n log n)              |
+ * | Intro Sort     | O(n)***                 | O(n log n)              | O(n log n)              |
+ * | Radix Sort     | O(w/8 * n)****          | O(w/8 * n)              | O(w/8 * n)              |
  * +----------------+-------------------------+-------------------------+-------------------------+
+ * ***all-equal input: the 3-way partition finishes it in a single pass
+ * ****w = key width in bits (32 for int, 64 for long); digits shared by every key are skipped
  *
 
 
@@ -259,6 +2051,7 @@ Answer is D. Steps - Take pivot as first element
  * ==========================================================================================
  *
  * • Small / nearly sorted arrays ............. INSERTION SORT
+ * • Large, mostly presorted arrays ........... NATURAL MERGE SORT (TimSort-style runs + galloping)
  * • Teaching / educational demos ............. BUBBLE SORT or SELECTION SORT
  * • Large arrays, general-purpose ............ QUICK SORT (randomized)
  * • Worst-case performance must be good ...... MERGE SORT or HEAP SORT
@@ -266,6 +2059,7 @@ Answer is D. Steps - Take pivot as first element
  * • Low memory usage required ................ QUICK SORT / SELECTION SORT / HEAP SORT
  * • Sorting linked lists ..................... MERGE SORT (no random access needed)
  * • Minimizing write operations .............. SELECTION SORT
+ * • Fixed-width int/long keys, large n ........ RADIX SORT (LSD; MSD when keys share long prefixes)
  *
  * ==========================================================================================
  */
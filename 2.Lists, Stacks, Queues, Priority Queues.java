@@ -232,6 +232,2274 @@
  *     are ADT-like interfaces; ArrayList, LinkedList, HashMap, etc. are
  *     concrete implementations.
  *
+ *
+ * 9) ARRAY-BASED STACK AND RING-BUFFER QUEUE
+ * ------------------------------------------------------------------------------------------
+ * Why:
+ *   - StackLL / QueueLL allocate a new Node on every push/enqueue: an object header and
+ *     a pointer for every int, and the next element sits wherever the allocator put it.
+ *   - An int[] keeps the values back to back: nothing to allocate per element, and
+ *     walking it is cache-friendly.
+ * Idea:
+ *   - Stack: top of stack = data[size - 1]; double the array when it fills up.
+ *   - Queue: a circular buffer ("ring"). Its capacity is a power of two, so wrapping an
+ *     index is (i & mask) instead of i % capacity.
+ *   - Bulk pushAll / enqueueAll / drainTo move whole slices with System.arraycopy
+ *     (the ring wraps at most once, so at most two copies).
+ *   - QueueADT is the queue counterpart of StackADT (section 8); QueueLL fits it too.
+ */
+ *   interface QueueADT {
+ *       void enqueue(int x);
+ *       int dequeue();
+ *       int peek();
+ *       boolean isEmpty();
+ *   }
+ *
+ *   class IntArrayStack implements StackADT {
+ *       private int[] data;
+ *       private int size;
+ *
+ *       IntArrayStack() { this(16); }
+ *
+ *       IntArrayStack(int initialCapacity) {
+ *           data = new int[Math.max(1, initialCapacity)];
+ *       }
+ *
+ *       public void push(int x) {
+ *           if (size == data.length) grow(size + 1);
+ *           data[size++] = x;
+ *       }
+ *
+ *       public int pop() {
+ *           if (size == 0) throw new RuntimeException("Stack underflow");
+ *           return data[--size];
+ *       }
+ *
+ *       public int peek() {
+ *           if (size == 0) throw new RuntimeException("Stack underflow");
+ *           return data[size - 1];
+ *       }
+ *
+ *       public boolean isEmpty() { return size == 0; }
+ *       int size() { return size; }
+ *
+ *       // Pushes src[off..off+len-1] in order, so src[off + len - 1] ends up on top
+ *       void pushAll(int[] src, int off, int len) {
+ *           if (size + len > data.length) grow(size + len);
+ *           System.arraycopy(src, off, data, size, len);
+ *           size += len;
+ *       }
+ *
+ *       // Pops up to max values into dst[off..], bottom-most first (dst's last value is the old top);
+ *       // returns how many were moved
+ *       int drainTo(int[] dst, int off, int max) {
+ *           int n = Math.min(max, size);
+ *           size -= n;
+ *           System.arraycopy(data, size, dst, off, n);
+ *           return n;
+ *       }
+ *
+ *       // Doubling keeps push O(1) amortized
+ *       private void grow(int needed) {
+ *           int capacity = data.length;
+ *           while (capacity < needed) capacity <<= 1;
+ *           data = java.util.Arrays.copyOf(data, capacity);
+ *       }
+ *   }
+ *
+ *   class IntRingQueue implements QueueADT {
+ *       private int[] ring;     // capacity is always a power of two
+ *       private int mask;       // ring.length - 1, so (i & mask) == i % ring.length
+ *       private int head;       // index of the front element
+ *       private int size;
+ *
+ *       IntRingQueue() { this(16); }
+ *
+ *       IntRingQueue(int initialCapacity) {
+ *           int capacity = Integer.highestOneBit(Math.max(2, initialCapacity) - 1) << 1;
+ *           ring = new int[capacity];
+ *           mask = capacity - 1;
+ *       }
+ *
+ *       public void enqueue(int x) {
+ *           if (size == ring.length) grow(size + 1);
+ *           ring[(head + size) & mask] = x;
+ *           size++;
+ *       }
+ *
+ *       public int dequeue() {
+ *           if (size == 0) throw new RuntimeException("Queue underflow");
+ *           int val = ring[head];
+ *           head = (head + 1) & mask;
+ *           size--;
+ *           return val;
+ *       }
+ *
+ *       public int peek() {
+ *           if (size == 0) throw new RuntimeException("Queue underflow");
+ *           return ring[head];
+ *       }
+ *
+ *       public boolean isEmpty() { return size == 0; }
+ *       int size() { return size; }
+ *
+ *       // Enqueues src[off..off+len-1] in order; the free space wraps at most once, so two copies suffice
+ *       void enqueueAll(int[] src, int off, int len) {
+ *           if (size + len > ring.length) grow(size + len);
+ *           int tail = (head + size) & mask;
+ *           int first = Math.min(len, ring.length - tail);
+ *           System.arraycopy(src, off, ring, tail, first);
+ *           System.arraycopy(src, off + first, ring, 0, len - first);
+ *           size += len;
+ *       }
+ *
+ *       // Dequeues up to max values into dst[off..] in FIFO order; returns how many were moved
+ *       int drainTo(int[] dst, int off, int max) {
+ *           int n = Math.min(max, size);
+ *           int first = Math.min(n, ring.length - head);
+ *           System.arraycopy(ring, head, dst, off, first);
+ *           System.arraycopy(ring, 0, dst, off + first, n - first);
+ *           head = (head + n) & mask;
+ *           size -= n;
+ *           return n;
+ *       }
+ *
+ *       // Doubles the ring and unwraps the contents so the front is at index 0 again
+ *       private void grow(int needed) {
+ *           int capacity = ring.length;
+ *           while (capacity < needed) capacity <<= 1;
+ *           int[] bigger = new int[capacity];
+ *           int n = size;
+ *           drainTo(bigger, 0, n);
+ *           ring = bigger;
+ *           mask = capacity - 1;
+ *           head = 0;
+ *           size = n;
+ *       }
+ *   }
+ *
+ * Complexity:
+ *   - push, pop, enqueue, dequeue, peek -> O(1) amortized (O(n) only on the call that grows).
+ *   - pushAll / enqueueAll / drainTo of k values -> O(k), as one or two array copies.
+ *   - Memory: 4 bytes per int (plus up to 2x slack) vs. a ~16-24 byte Node per int.
+ *
+ *
+ * 10) LOCK-FREE CONCURRENT QUEUES
+ * ------------------------------------------------------------------------------------------
+ * Problem:
+ *   - QueueLL is not thread-safe, and wrapping every call in synchronized lets only one
+ *     producer or consumer in at a time.
+ * Idea (lock-free = threads retry with compare-and-set (CAS) instead of waiting on a lock):
+ *   - ConcurrentQueueLL (Michael-Scott queue): the same front/rear design as QueueLL, but
+ *     front and rear are AtomicReferences and front points at a dummy node.
+ *       * enqueue: CAS rear.next from null to the new node, then try to swing rear.
+ *       * dequeue: CAS front to front.next; that node's value is the result.
+ *       * If rear is found lagging (a half-finished enqueue), any thread helps move it,
+ *         so a stalled thread never blocks the others.
+ *   - BoundedMpmcQueue (multi-producer/multi-consumer array queue): a power-of-two ring
+ *     where every slot has a sequence number saying whose turn it is. A producer claims a
+ *     ticket with one CAS on the enqueue counter, writes the value, then bumps the slot's
+ *     sequence; consumers do the mirror image. No allocation per element.
+ *   - The two counters are padded 128 bytes apart so producers and consumers don't keep
+ *     invalidating each other's cache line ("false sharing").
+ *   - poll(ifEmpty) is the non-throwing dequeue for polling loops; offer(x) returns false
+ *     instead of throwing when the bounded queue is full.
+ */
+ *   class ConcurrentQueueLL implements QueueADT {
+ *       private static class CNode {
+ *           final int data;
+ *           final java.util.concurrent.atomic.AtomicReference<CNode> next = new java.util.concurrent.atomic.AtomicReference<>();
+ *           CNode(int data) { this.data = data; }
+ *       }
+ *
+ *       // front always points at a dummy node; the real first element is front.next
+ *       private final java.util.concurrent.atomic.AtomicReference<CNode> front, rear;
+ *
+ *       ConcurrentQueueLL() {
+ *           CNode dummy = new CNode(0);
+ *           front = new java.util.concurrent.atomic.AtomicReference<>(dummy);
+ *           rear = new java.util.concurrent.atomic.AtomicReference<>(dummy);
+ *       }
+ *
+ *       public void enqueue(int x) {
+ *           CNode n = new CNode(x);
+ *           while (true) {
+ *               CNode last = rear.get();
+ *               CNode next = last.next.get();
+ *               if (last != rear.get()) continue;          // rear moved under us, re-read
+ *               if (next == null) {
+ *                   // Link after the real last node; whoever wins this CAS owns the slot
+ *                   if (last.next.compareAndSet(null, n)) {
+ *                       rear.compareAndSet(last, n);       // may fail if someone already helped
+ *                       return;
+ *                   }
+ *               } else {
+ *                   rear.compareAndSet(last, next);        // rear is lagging: help the other enqueue finish
+ *               }
+ *           }
+ *       }
+ *
+ *       public int dequeue() {
+ *           CNode first = takeFirst();
+ *           if (first == null) throw new RuntimeException("Queue underflow");
+ *           return first.data;
+ *       }
+ *
+ *       // Like dequeue(), but returns ifEmpty instead of throwing (for polling loops)
+ *       int poll(int ifEmpty) {
+ *           CNode first = takeFirst();
+ *           return first == null ? ifEmpty : first.data;
+ *       }
+ *
+ *       // Swings front to the next node and returns it (it becomes the new dummy), or null if empty
+ *       private CNode takeFirst() {
+ *           while (true) {
+ *               CNode first = front.get();
+ *               CNode last = rear.get();
+ *               CNode next = first.next.get();
+ *               if (first != front.get()) continue;
+ *               if (next == null) return null;
+ *               if (first == last) {
+ *                   rear.compareAndSet(last, next);        // rear is lagging behind a finished link
+ *                   continue;
+ *               }
+ *               if (front.compareAndSet(first, next)) return next;
+ *           }
+ *       }
+ *
+ *       public int peek() {
+ *           CNode next = front.get().next.get();
+ *           if (next == null) throw new RuntimeException("Queue underflow");
+ *           return next.data;
+ *       }
+ *
+ *       public boolean isEmpty() { return front.get().next.get() == null; }
+ *   }
+ *
+ *   class BoundedMpmcQueue implements QueueADT {
+ *       // enqueue/dequeue counters live 128 bytes apart in one array, so producers and consumers
+ *       // never write to the same cache line (no false sharing)
+ *       private static final int PAD = 16;
+ *       private static final int ENQ = PAD, DEQ = 2 * PAD;
+ *
+ *       private final int[] values;
+ *       private final java.util.concurrent.atomic.AtomicLongArray sequence; // per-slot turn counter
+ *       private final java.util.concurrent.atomic.AtomicLongArray positions = new java.util.concurrent.atomic.AtomicLongArray(3 * PAD);
+ *       private final int mask;
+ *
+ *       BoundedMpmcQueue(int capacity) {
+ *           int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+ *           values = new int[size];
+ *           sequence = new java.util.concurrent.atomic.AtomicLongArray(size);
+ *           for (int i = 0; i < size; i++) sequence.set(i, i);
+ *           mask = size - 1;
+ *       }
+ *
+ *       // Slot i is free for the producer holding ticket pos when sequence[i] == pos,
+ *       // and full for the consumer holding ticket pos when sequence[i] == pos + 1
+ *       boolean offer(int x) {
+ *           long pos = positions.get(ENQ);
+ *           while (true) {
+ *               int i = (int) (pos & mask);
+ *               long diff = sequence.get(i) - pos;
+ *               if (diff == 0) {
+ *                   if (positions.compareAndSet(ENQ, pos, pos + 1)) {
+ *                       values[i] = x;
+ *                       sequence.lazySet(i, pos + 1);      // release: publishes values[i] to the consumer
+ *                       return true;
+ *                   }
+ *                   pos = positions.get(ENQ);
+ *               } else if (diff < 0) {
+ *                   return false;                          // a whole lap behind: full
+ *               } else {
+ *                   pos = positions.get(ENQ);              // another producer took this ticket
+ *               }
+ *           }
+ *       }
+ *
+ *       int poll(int ifEmpty) {
+ *           long pos = positions.get(DEQ);
+ *           while (true) {
+ *               int i = (int) (pos & mask);
+ *               long diff = sequence.get(i) - (pos + 1);
+ *               if (diff == 0) {
+ *                   if (positions.compareAndSet(DEQ, pos, pos + 1)) {
+ *                       int val = values[i];
+ *                       sequence.lazySet(i, pos + mask + 1); // hand the slot to the producer one lap ahead
+ *                       return val;
+ *                   }
+ *                   pos = positions.get(DEQ);
+ *               } else if (diff < 0) {
+ *                   return ifEmpty;
+ *               } else {
+ *                   pos = positions.get(DEQ);
+ *               }
+ *           }
+ *       }
+ *
+ *       public void enqueue(int x) {
+ *           if (!offer(x)) throw new RuntimeException("Full");
+ *       }
+ *
+ *       public int dequeue() {
+ *           // No spare int value can mean "empty", so check the slot first and retry if we lose the race
+ *           while (true) {
+ *               long pos = positions.get(DEQ);
+ *               int i = (int) (pos & mask);
+ *               long diff = sequence.get(i) - (pos + 1);
+ *               if (diff < 0) throw new RuntimeException("Queue underflow");
+ *               if (diff == 0 && positions.compareAndSet(DEQ, pos, pos + 1)) {
+ *                   int val = values[i];
+ *                   sequence.lazySet(i, pos + mask + 1);
+ *                   return val;
+ *               }
+ *           }
+ *       }
+ *
+ *       // Snapshot only: another consumer may take this value right after
+ *       public int peek() {
+ *           long pos = positions.get(DEQ);
+ *           int i = (int) (pos & mask);
+ *           if (sequence.get(i) != pos + 1) throw new RuntimeException("Queue underflow");
+ *           return values[i];
+ *       }
+ *
+ *       public boolean isEmpty() { return positions.get(DEQ) >= positions.get(ENQ); }
+ *   }
+ *
+ * Stress test (multi-threaded harness): every value must arrive exactly once, and each
+ * consumer must see any one producer's values in FIFO order.
+ *
+ *   class QueueStressTest {
+ *       static final int PRODUCERS = 4, CONSUMERS = 4, PER_PRODUCER = 1_000_000;
+ *
+ *       public static void main(String[] args) throws InterruptedException {
+ *           ConcurrentQueueLL linked = new ConcurrentQueueLL();
+ *           stress("ConcurrentQueueLL", x -> { linked.enqueue(x); return true; }, linked::poll);
+ *           BoundedMpmcQueue bounded = new BoundedMpmcQueue(1024);
+ *           stress("BoundedMpmcQueue", bounded::offer, bounded::poll);
+ *       }
+ *
+ *       interface Offer { boolean offer(int x); }
+ *       interface Poll { int poll(int ifEmpty); }
+ *
+ *       // Producer p sends p * PER_PRODUCER + 0, 1, 2, ...; every value must arrive exactly once,
+ *       // and each consumer must see any one producer's values in increasing order (FIFO)
+ *       static void stress(String name, Offer offer, Poll poll) throws InterruptedException {
+ *           int total = PRODUCERS * PER_PRODUCER;
+ *           java.util.concurrent.atomic.AtomicInteger received = new java.util.concurrent.atomic.AtomicInteger();
+ *           java.util.BitSet[] seen = new java.util.BitSet[CONSUMERS];
+ *           String[] errors = new String[CONSUMERS];
+ *           Thread[] threads = new Thread[PRODUCERS + CONSUMERS];
+ *
+ *           for (int p = 0; p < PRODUCERS; p++) {
+ *               int base = p * PER_PRODUCER;
+ *               threads[p] = new Thread(() -> {
+ *                   for (int i = 0; i < PER_PRODUCER; i++)
+ *                       while (!offer.offer(base + i)) Thread.yield(); // back off: spinning starves the other side when threads outnumber cores
+ *               });
+ *           }
+ *           for (int c = 0; c < CONSUMERS; c++) {
+ *               int id = c;
+ *               seen[c] = new java.util.BitSet(total);
+ *               threads[PRODUCERS + c] = new Thread(() -> {
+ *                   int[] last = new int[PRODUCERS];
+ *                   java.util.Arrays.fill(last, -1);
+ *                   while (received.get() < total) {
+ *                       int v = poll.poll(-1);
+ *                       if (v < 0) { Thread.yield(); continue; }
+ *                       received.incrementAndGet();
+ *                       int producer = v / PER_PRODUCER, i = v % PER_PRODUCER;
+ *                       if (i <= last[producer]) errors[id] = "out of order: " + v;
+ *                       last[producer] = i;
+ *                       if (seen[id].get(v)) errors[id] = "duplicate: " + v;
+ *                       seen[id].set(v);
+ *                   }
+ *               });
+ *           }
+ *
+ *           long start = System.nanoTime();
+ *           for (Thread t : threads) t.start();
+ *           for (Thread t : threads) t.join();
+ *           long ms = (System.nanoTime() - start) / 1_000_000;
+ *
+ *           java.util.BitSet all = new java.util.BitSet(total);
+ *           int sum = 0;
+ *           for (int c = 0; c < CONSUMERS; c++) {
+ *               if (errors[c] != null) throw new AssertionError(name + ": " + errors[c]);
+ *               all.or(seen[c]);
+ *               sum += seen[c].cardinality();
+ *           }
+ *           if (all.cardinality() != total || sum != total) throw new AssertionError(name + ": lost or duplicated values");
+ *           System.out.println(name + ": " + total + " values, " + PRODUCERS + "P/" + CONSUMERS + "C, " + ms + " ms, OK");
+ *       }
+ *   }
+ *
+ * Complexity:
+ *   - enqueue / dequeue -> O(1) expected; under contention a CAS may be retried.
+ *   - ConcurrentQueueLL allocates one node (plus its AtomicReference) per element;
+ *     BoundedMpmcQueue allocates nothing after construction but has a fixed capacity.
+ *
+ *
+ * 11) LOCK-FREE STACK (TREIBER) WITH ELIMINATION BACKOFF
+ * ------------------------------------------------------------------------------------------
+ * Treiber stack:
+ *   - StackLL with top turned into an AtomicReference.
+ *   - push: new node, node.next = top, CAS top from the old value to the node; retry on failure.
+ *   - pop:  CAS top from t to t.next; the winner returns t.data.
+ *   - Every operation hits the same top reference, so under heavy contention most CASes fail.
+ *
+ * Elimination backoff:
+ *   - A push followed by a pop leaves the stack unchanged, so a concurrent push/pop pair
+ *     can simply swap the value and never touch top at all.
+ *   - When a push loses the CAS it parks its node in a random slot of a small array and
+ *     waits briefly; a pop that loses its CAS checks a random slot and takes a parked node.
+ *   - The more threads contend, the more pairs meet in the array; this is what lets
+ *     throughput scale instead of collapsing on the single top pointer.
+ */
+ *   class TreiberStack implements StackADT {
+ *       private static class CNode {
+ *           final int data;
+ *           CNode next;
+ *           CNode(int data) { this.data = data; }
+ *       }
+ *
+ *       private final java.util.concurrent.atomic.AtomicReference<CNode> top = new java.util.concurrent.atomic.AtomicReference<>();
+ *       private final java.util.concurrent.atomic.AtomicReferenceArray<CNode> elimination; // null = no elimination
+ *       private static final int ELIMINATION_SPINS = 100;  // how long a push waits in the array for a pop
+ *
+ *       TreiberStack() { this(0); }
+ *
+ *       // eliminationSlots > 0 turns on the elimination array (a few slots per expected thread pair)
+ *       TreiberStack(int eliminationSlots) {
+ *           elimination = eliminationSlots > 0 ? new java.util.concurrent.atomic.AtomicReferenceArray<>(eliminationSlots) : null;
+ *       }
+ *
+ *       public void push(int x) {
+ *           CNode n = new CNode(x);
+ *           while (true) {
+ *               CNode t = top.get();
+ *               n.next = t;
+ *               if (top.compareAndSet(t, n)) return;
+ *               // Lost the race on top: back off into the elimination array, where a pop may take n directly
+ *               if (elimination != null && offerToPop(n)) return;
+ *           }
+ *       }
+ *
+ *       public int pop() {
+ *           CNode n = popNode();
+ *           if (n == null) throw new RuntimeException("Stack underflow");
+ *           return n.data;
+ *       }
+ *
+ *       // Like pop(), but returns ifEmpty instead of throwing (for polling loops)
+ *       int poll(int ifEmpty) {
+ *           CNode n = popNode();
+ *           return n == null ? ifEmpty : n.data;
+ *       }
+ *
+ *       private CNode popNode() {
+ *           while (true) {
+ *               CNode t = top.get();
+ *               if (t == null) return null;
+ *               if (top.compareAndSet(t, t.next)) return t;
+ *               // Lost the race on top: see if a push is waiting to hand over its node instead
+ *               if (elimination != null) {
+ *                   CNode n = takeFromPush();
+ *                   if (n != null) return n;
+ *               }
+ *           }
+ *       }
+ *
+ *       // Parks n in a random empty slot for a short while; true if a pop took it
+ *       private boolean offerToPop(CNode n) {
+ *           int i = java.util.concurrent.ThreadLocalRandom.current().nextInt(elimination.length());
+ *           if (!elimination.compareAndSet(i, null, n)) return false;
+ *           for (int spin = 0; spin < ELIMINATION_SPINS; spin++) {
+ *               if (elimination.get(i) != n) return true;  // only a pop removes n from the slot
+ *               Thread.onSpinWait();
+ *           }
+ *           // Withdraw the offer; if that fails, a pop got it in the meantime
+ *           return !elimination.compareAndSet(i, n, null);
+ *       }
+ *
+ *       private CNode takeFromPush() {
+ *           int i = java.util.concurrent.ThreadLocalRandom.current().nextInt(elimination.length());
+ *           CNode n = elimination.get(i);
+ *           return n != null && elimination.compareAndSet(i, n, null) ? n : null;
+ *       }
+ *
+ *       public int peek() {
+ *           CNode t = top.get();
+ *           if (t == null) throw new RuntimeException("Stack underflow");
+ *           return t.data;
+ *       }
+ *
+ *       public boolean isEmpty() { return top.get() == null; }
+ *   }
+ *
+ * Throughput benchmark: push/pop pairs from 1 up to N threads (default 2 x cores, or
+ * pass N), against a StackLL behind a single lock.
+ *
+ *   class StackScalingBenchmark {
+ *       public static void main(String[] args) throws InterruptedException {
+ *           int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 2 * Runtime.getRuntime().availableProcessors();
+ *           System.out.printf("%-22s %8s %15s%n", "stack", "threads", "ops/sec");
+ *           for (int threads = 1; threads <= maxThreads; threads *= 2) {
+ *               report("synchronized StackLL", threads, new SynchronizedStack());
+ *               report("TreiberStack", threads, new TreiberStack());
+ *               report("TreiberStack+elim", threads, new TreiberStack(threads));
+ *           }
+ *       }
+ *
+ *       // The baseline: a plain StackLL behind one lock
+ *       static class SynchronizedStack implements StackADT {
+ *           private final StackLL stack = new StackLL();
+ *           public synchronized void push(int x) { stack.push(x); }
+ *           public synchronized int pop() { return stack.pop(); }
+ *           public synchronized int peek() { return stack.peek(); }
+ *           public synchronized boolean isEmpty() { return stack.isEmpty(); }
+ *       }
+ *
+ *       // Every thread does push/pop pairs for one second (after a half-second warm-up)
+ *       static void report(String name, int threads, StackADT stack) throws InterruptedException {
+ *           for (int i = 0; i < 1024; i++) stack.push(i);  // pre-fill so pops rarely find it empty
+ *           java.util.concurrent.atomic.AtomicBoolean measuring = new java.util.concurrent.atomic.AtomicBoolean();
+ *           java.util.concurrent.atomic.AtomicBoolean stop = new java.util.concurrent.atomic.AtomicBoolean();
+ *           java.util.concurrent.atomic.LongAdder ops = new java.util.concurrent.atomic.LongAdder();
+ *           Thread[] workers = new Thread[threads];
+ *           for (int t = 0; t < threads; t++) {
+ *               workers[t] = new Thread(() -> {
+ *                   long local = 0;
+ *                   while (!stop.get()) {
+ *                       stack.push(42);
+ *                       stack.pop();
+ *                       if (measuring.get()) local += 2;
+ *                   }
+ *                   ops.add(local);
+ *               });
+ *               workers[t].start();
+ *           }
+ *           Thread.sleep(500);
+ *           measuring.set(true);
+ *           Thread.sleep(1000);
+ *           stop.set(true);
+ *           for (Thread w : workers) w.join();
+ *           System.out.printf("%-22s %8d %,15d%n", name, threads, ops.sum());
+ *       }
+ *   }
+ *
+ * Complexity:
+ *   - push, pop, peek -> O(1) expected; a failed CAS is retried (or eliminated).
+ *   - One node allocated per push, as in StackLL.
+ *
+ *
+ * 12) SINGLE-PRODUCER / SINGLE-CONSUMER RING BUFFER
+ * ------------------------------------------------------------------------------------------
+ * When exactly one thread enqueues and exactly one thread dequeues (one stage of a
+ * pipeline handing work to the next), no CAS is needed at all:
+ *   - tail is written only by the producer, head only by the consumer.
+ *   - Each side publishes its own index with a release store (lazySet / setRelease) and
+ *     reads the other side's with an acquire load. No locks, no retries: every call
+ *     finishes in a fixed number of steps (wait-free).
+ *
+ * Keeping the two threads off each other's cache lines:
+ *   - head and tail sit 128 bytes apart, like the padded counters of BoundedMpmcQueue.
+ *   - Each side keeps a cached copy of the other's index and only re-reads the real one
+ *     when the ring looks full (producer) or empty (consumer). Most calls touch no
+ *     shared line except the slot itself.
+ *
+ * Batches:
+ *   - offerBatch / drainBatch move a whole block with System.arraycopy (two copies
+ *     when it wraps) and publish it with one release store instead of one per value.
+ *   - Any thread may call isEmpty(); everything else belongs to its own side.
+ */
+ *   class SpscIntQueue implements QueueADT {
+ *       // Slots 128 bytes apart in both arrays, so producer-owned and consumer-owned values never share a cache line
+ *       private static final int PAD = 16;
+ *       private static final int HEAD = PAD, TAIL = 2 * PAD;
+ *
+ *       private final int[] ring;
+ *       private final int mask;
+ *       // head = next slot to read (written only by the consumer), tail = next slot to write (only by the producer)
+ *       private final java.util.concurrent.atomic.AtomicLongArray counters = new java.util.concurrent.atomic.AtomicLongArray(3 * PAD);
+ *       // Each side's last-seen copy of the other side's counter: cache[HEAD] is the producer's view of head,
+ *       // cache[TAIL] the consumer's view of tail. They are only refreshed when the ring looks full/empty.
+ *       private final long[] cache = new long[3 * PAD];
+ *
+ *       SpscIntQueue(int capacity) {
+ *           int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+ *           ring = new int[size];
+ *           mask = size - 1;
+ *       }
+ *
+ *       // ---------- producer side (one thread only) ----------
+ *
+ *       boolean offer(int x) {
+ *           long t = counters.getPlain(TAIL);
+ *           if (t - cache[HEAD] == ring.length) {
+ *               cache[HEAD] = counters.getAcquire(HEAD);
+ *               if (t - cache[HEAD] == ring.length) return false;   // really full
+ *           }
+ *           ring[(int) t & mask] = x;
+ *           counters.setRelease(TAIL, t + 1);                        // lazySet: publishes ring[t] without a full fence
+ *           return true;
+ *       }
+ *
+ *       // Copies as many of src[off..off+len-1] as fit and publishes them with a single release; returns the count
+ *       int offerBatch(int[] src, int off, int len) {
+ *           long t = counters.getPlain(TAIL);
+ *           if (ring.length - (t - cache[HEAD]) < len) cache[HEAD] = counters.getAcquire(HEAD);
+ *           int n = (int) Math.min(len, ring.length - (t - cache[HEAD]));
+ *           int i = (int) t & mask;
+ *           int first = Math.min(n, ring.length - i);
+ *           System.arraycopy(src, off, ring, i, first);
+ *           System.arraycopy(src, off + first, ring, 0, n - first);
+ *           counters.setRelease(TAIL, t + n);
+ *           return n;
+ *       }
+ *
+ *       public void enqueue(int x) {
+ *           if (!offer(x)) throw new RuntimeException("Full");
+ *       }
+ *
+ *       // ---------- consumer side (one thread only) ----------
+ *
+ *       int poll(int ifEmpty) {
+ *           long h = counters.getPlain(HEAD);
+ *           if (h == cache[TAIL]) {
+ *               cache[TAIL] = counters.getAcquire(TAIL);
+ *               if (h == cache[TAIL]) return ifEmpty;                // really empty
+ *           }
+ *           int val = ring[(int) h & mask];
+ *           counters.setRelease(HEAD, h + 1);                        // hands the slot back to the producer
+ *           return val;
+ *       }
+ *
+ *       // Moves up to max values into dst[off..] with one release; returns the count
+ *       int drainBatch(int[] dst, int off, int max) {
+ *           long h = counters.getPlain(HEAD);
+ *           if (cache[TAIL] - h < max) cache[TAIL] = counters.getAcquire(TAIL);
+ *           int n = (int) Math.min(max, cache[TAIL] - h);
+ *           int i = (int) h & mask;
+ *           int first = Math.min(n, ring.length - i);
+ *           System.arraycopy(ring, i, dst, off, first);
+ *           System.arraycopy(ring, 0, dst, off + first, n - first);
+ *           counters.setRelease(HEAD, h + n);
+ *           return n;
+ *       }
+ *
+ *       public int dequeue() {
+ *           if (consumerSeesEmpty()) throw new RuntimeException("Queue underflow");
+ *           return poll(0);
+ *       }
+ *
+ *       public int peek() {
+ *           if (consumerSeesEmpty()) throw new RuntimeException("Queue underflow");
+ *           return ring[(int) counters.getPlain(HEAD) & mask];
+ *       }
+ *
+ *       private boolean consumerSeesEmpty() {
+ *           long h = counters.getPlain(HEAD);
+ *           if (h != cache[TAIL]) return false;
+ *           cache[TAIL] = counters.getAcquire(TAIL);
+ *           return h == cache[TAIL];
+ *       }
+ *
+ *       // Snapshot, safe to call from any thread
+ *       public boolean isEmpty() { return counters.getAcquire(HEAD) >= counters.getAcquire(TAIL); }
+ *   }
+ *
+ * Throughput check: sends 500 million ints through a 64K ring one at a time and in
+ * batches of 256, checking the consumer sees exactly 0, 1, 2, ... in order.
+ *
+ *   class SpscThroughputBenchmark {
+ *       static final long COUNT = 500_000_000L;
+ *       static final int BATCH = 256;
+ *
+ *       // For stable numbers pin the JVM to two cores on one socket, e.g. taskset -c 2,3 java ...
+ *       public static void main(String[] args) throws InterruptedException {
+ *           for (int round = 0; round < 3; round++) {
+ *               run("offer/poll", false);
+ *               run("offerBatch/drainBatch", true);
+ *           }
+ *       }
+ *
+ *       // The producer sends 0, 1, 2, ...; the consumer checks it gets exactly that sequence back
+ *       static void run(String name, boolean batched) throws InterruptedException {
+ *           SpscIntQueue queue = new SpscIntQueue(1 << 16);
+ *           Thread producer = new Thread(() -> {
+ *               int[] batch = new int[BATCH];
+ *               long next = 0;
+ *               while (next < COUNT) {
+ *                   if (batched) {
+ *                       int len = (int) Math.min(BATCH, COUNT - next);
+ *                       for (int i = 0; i < len; i++) batch[i] = (int) (next + i);
+ *                       int sent = queue.offerBatch(batch, 0, len);
+ *                       next += sent;
+ *                       if (sent == 0) Thread.yield();
+ *                   } else if (queue.offer((int) next)) {
+ *                       next++;
+ *                   } else {
+ *                       Thread.yield();
+ *                   }
+ *               }
+ *           });
+ *
+ *           long start = System.nanoTime();
+ *           producer.start();
+ *           int[] batch = new int[BATCH];
+ *           long expected = 0;
+ *           while (expected < COUNT) {
+ *               if (batched) {
+ *                   int n = queue.drainBatch(batch, 0, BATCH);
+ *                   if (n == 0) Thread.yield();
+ *                   for (int i = 0; i < n; i++)
+ *                       if (batch[i] != (int) expected++) throw new AssertionError("out of order at " + expected);
+ *               } else {
+ *                   int v = queue.poll(-1);
+ *                   if (v == -1 && (int) expected != -1) { Thread.yield(); continue; }
+ *                   if (v != (int) expected++) throw new AssertionError("out of order at " + expected);
+ *               }
+ *           }
+ *           producer.join();
+ *           double seconds = (System.nanoTime() - start) / 1e9;
+ *           System.out.printf("%-22s %,8.1f M ops/sec%n", name, COUNT / seconds / 1e6);
+ *       }
+ *   }
+ *
+ * Complexity:
+ *   - offer, poll, peek -> O(1), wait-free.
+ *   - offerBatch, drainBatch -> O(k) for k values, but only one index publish per batch.
+ *   - Fixed capacity (rounded up to a power of two); no allocation after construction.
+ *
+ *
+ * 13) UNROLLED LINKED LIST
+ * ------------------------------------------------------------------------------------------
+ * Two costs of SinglyLinkedList above:
+ *   - insertAtEnd walks the whole list, so loading n values one by one is O(n^2).
+ *   - One Node per int: ~16 bytes of object header + 4 bytes of data + a reference, and
+ *     the nodes can be anywhere in the heap, so iteration is a cache miss per value.
+ *
+ * Unrolled list: each node holds a small int[] block (64 values) plus a count.
+ *   - Keep a tail pointer -> append is O(1).
+ *   - Iteration reads arrays sequentially; one node header per 64 values.
+ *   - insert into a full block: split it into two half-full blocks.
+ *   - delete: if a block drops below half full, merge the next block into it (if both fit)
+ *     or borrow values from the front of the next block.
+ *   - So every block except possibly the last stays at least half full.
+ *   - Cursor walks the list and can remove the value it just returned in place.
+ */
+ *   class UnrolledIntList {
+ *       private static final int BLOCK_SIZE = 64;          // 256 bytes of ints: a few cache lines per node
+ *
+ *       private static class Block {
+ *           final int[] items = new int[BLOCK_SIZE];
+ *           int count;
+ *           Block next;
+ *       }
+ *
+ *       private Block head, tail;
+ *       private int size;
+ *
+ *       int size() { return size; }
+ *       boolean isEmpty() { return size == 0; }
+ *
+ *       // Append at the tail: O(1), a new block only every BLOCK_SIZE values
+ *       void insertAtEnd(int x) {
+ *           if (tail == null || tail.count == BLOCK_SIZE) appendBlock();
+ *           tail.items[tail.count++] = x;
+ *           size++;
+ *       }
+ *
+ *       // Bulk load: fills whole blocks with arraycopy
+ *       void addAll(int[] src, int off, int len) {
+ *           while (len > 0) {
+ *               if (tail == null || tail.count == BLOCK_SIZE) appendBlock();
+ *               int n = Math.min(len, BLOCK_SIZE - tail.count);
+ *               System.arraycopy(src, off, tail.items, tail.count, n);
+ *               tail.count += n;
+ *               size += n;
+ *               off += n;
+ *               len -= n;
+ *           }
+ *       }
+ *
+ *       void insertAtHead(int x) { insert(0, x); }
+ *
+ *       int get(int index) {
+ *           checkIndex(index, size);
+ *           Block b = head;
+ *           while (index >= b.count) {
+ *               index -= b.count;
+ *               b = b.next;
+ *           }
+ *           return b.items[index];
+ *       }
+ *
+ *       // Insert before position index (0..size); a full block is split in half first
+ *       void insert(int index, int x) {
+ *           checkIndex(index, size + 1);
+ *           if (index == size) { insertAtEnd(x); return; }
+ *           Block b = head;
+ *           while (index > b.count || (index == b.count && b.next != null)) {
+ *               index -= b.count;
+ *               b = b.next;
+ *           }
+ *           if (b.count == BLOCK_SIZE) {
+ *               Block right = splitBlock(b);
+ *               if (index > b.count) {
+ *                   index -= b.count;
+ *                   b = right;
+ *               }
+ *           }
+ *           System.arraycopy(b.items, index, b.items, index + 1, b.count - index);
+ *           b.items[index] = x;
+ *           b.count++;
+ *           size++;
+ *       }
+ *
+ *       int removeAt(int index) {
+ *           checkIndex(index, size);
+ *           Block prev = null, b = head;
+ *           while (index >= b.count) {
+ *               index -= b.count;
+ *               prev = b;
+ *               b = b.next;
+ *           }
+ *           int val = b.items[index];
+ *           removeFromBlock(prev, b, index);
+ *           return val;
+ *       }
+ *
+ *       // Delete first occurrence of x; returns false if not found
+ *       boolean deleteFirst(int x) {
+ *           for (Block prev = null, b = head; b != null; prev = b, b = b.next) {
+ *               for (int i = 0; i < b.count; i++) {
+ *                   if (b.items[i] == x) {
+ *                       removeFromBlock(prev, b, i);
+ *                       return true;
+ *                   }
+ *               }
+ *           }
+ *           return false;
+ *       }
+ *
+ *       // Index of the first occurrence of x, or -1; scans each block's array in order
+ *       int search(int x) {
+ *           int base = 0;
+ *           for (Block b = head; b != null; b = b.next) {
+ *               for (int i = 0; i < b.count; i++)
+ *                   if (b.items[i] == x) return base + i;
+ *               base += b.count;
+ *           }
+ *           return -1;
+ *       }
+ *
+ *       int[] toArray() {
+ *           int[] out = new int[size];
+ *           int k = 0;
+ *           for (Block b = head; b != null; b = b.next) {
+ *               System.arraycopy(b.items, 0, out, k, b.count);
+ *               k += b.count;
+ *           }
+ *           return out;
+ *       }
+ *
+ *       Cursor cursor() { return new Cursor(); }
+ *
+ *       // Forward cursor; remove() deletes the value last returned by next()
+ *       class Cursor implements java.util.PrimitiveIterator.OfInt {
+ *           private Block prev, block = head;
+ *           private int index;                              // next position inside block
+ *           private boolean canRemove;
+ *
+ *           public boolean hasNext() {
+ *               return block != null && (index < block.count || block.next != null);
+ *           }
+ *
+ *           public int nextInt() {
+ *               if (!hasNext()) throw new java.util.NoSuchElementException();
+ *               if (index == block.count) {
+ *                   prev = block;
+ *                   block = block.next;
+ *                   index = 0;
+ *               }
+ *               canRemove = true;
+ *               return block.items[index++];
+ *           }
+ *
+ *           public void remove() {
+ *               if (!canRemove) throw new IllegalStateException("next() has not been called");
+ *               canRemove = false;
+ *               Block b = block;
+ *               removeFromBlock(prev, b, --index);
+ *               // An emptied block was unlinked: continue from the start of the one after it
+ *               if (b.count == 0) {
+ *                   block = prev == null ? head : prev.next;
+ *                   index = 0;
+ *               }
+ *           }
+ *       }
+ *
+ *       private void appendBlock() {
+ *           Block b = new Block();
+ *           if (tail == null) head = b;
+ *           else tail.next = b;
+ *           tail = b;
+ *       }
+ *
+ *       // Moves the upper half of a full block into a new block right after it; returns the new block
+ *       private Block splitBlock(Block b) {
+ *           Block right = new Block();
+ *           int half = BLOCK_SIZE / 2;
+ *           System.arraycopy(b.items, half, right.items, 0, BLOCK_SIZE - half);
+ *           right.count = BLOCK_SIZE - half;
+ *           b.count = half;
+ *           right.next = b.next;
+ *           b.next = right;
+ *           if (tail == b) tail = right;
+ *           return right;
+ *       }
+ *
+ *       // Removes b.items[i], then keeps blocks at least half full by merging with or borrowing from b.next.
+ *       // Values before position i in b never move, which is what lets Cursor.remove() keep its place.
+ *       private void removeFromBlock(Block prev, Block b, int i) {
+ *           System.arraycopy(b.items, i + 1, b.items, i, b.count - i - 1);
+ *           b.count--;
+ *           size--;
+ *
+ *           if (b.count == 0) {
+ *               if (prev == null) head = b.next;
+ *               else prev.next = b.next;
+ *               if (tail == b) tail = prev;
+ *               return;
+ *           }
+ *           Block next = b.next;
+ *           if (b.count >= BLOCK_SIZE / 2 || next == null) return;
+ *           if (b.count + next.count <= BLOCK_SIZE) {
+ *               // merge
+ *               System.arraycopy(next.items, 0, b.items, b.count, next.count);
+ *               b.count += next.count;
+ *               b.next = next.next;
+ *               if (tail == next) tail = b;
+ *           } else {
+ *               // borrow just enough to get back to half full
+ *               int n = BLOCK_SIZE / 2 - b.count;
+ *               System.arraycopy(next.items, 0, b.items, b.count, n);
+ *               System.arraycopy(next.items, n, next.items, 0, next.count - n);
+ *               b.count += n;
+ *               next.count -= n;
+ *           }
+ *       }
+ *
+ *       private static void checkIndex(int index, int bound) {
+ *           if (index < 0 || index >= bound) throw new IndexOutOfBoundsException("index " + index + " is outside [0, " + bound + ")");
+ *       }
+ *   }
+ *
+ * Complexity (B = block size):
+ *   - insertAtEnd -> O(1); addAll -> O(k) for k values.
+ *   - get / insert / removeAt at index i -> O(i / B + B).
+ *   - search, deleteFirst -> O(n), but a sequential scan over arrays.
+ *   - Memory -> about 4 bytes per value plus one node per B/2..B values.
+ *
+ *
+ * 14) OFF-HEAP QUEUE AND STACK
+ * ------------------------------------------------------------------------------------------
+ * QueueLL with hundreds of millions of entries = hundreds of millions of Node objects.
+ * Every one of them is something the garbage collector has to trace and copy, so pauses
+ * grow with the backlog.
+ *
+ * Off-heap version: keep the ints in direct ByteBuffers (native memory outside the heap).
+ *   - Memory comes in fixed chunks (default 2^20 ints = 4 MB); the heap holds only a few
+ *     chunk references, so GC work no longer depends on the size of the backlog.
+ *   - Queue: read from the first chunk, write to the last. When the first chunk is fully
+ *     read it is freed right away.
+ *   - Stack: push/pop on the last chunk; an emptied chunk is freed when popping past it.
+ *   - One freed chunk is kept as a spare so traffic at a chunk boundary does not allocate
+ *     and free over and over.
+ *   - A direct buffer's native memory is normally only released when the GC collects its
+ *     small heap object; OffHeapChunks calls the JDK's cleaner directly so "freed" means
+ *     freed now (and falls back to the GC if that is not available).
+ *   - Metrics come from the chunk counters, not from the heap: size(), reservedBytes() per
+ *     instance, OffHeapChunks.reservedBytes() for all of them; the JVM's own view is the
+ *     "direct" BufferPoolMXBean.
+ *   - Java 17 has no stable MemorySegment API yet, hence ByteBuffer.
+ */
+ *   class OffHeapChunks {
+ *       private static final java.util.concurrent.atomic.AtomicLong reservedBytes = new java.util.concurrent.atomic.AtomicLong();
+ *       private static final java.util.concurrent.atomic.AtomicLong chunksAllocated = new java.util.concurrent.atomic.AtomicLong();
+ *       private static final java.lang.reflect.Method INVOKE_CLEANER;
+ *       private static final Object UNSAFE;
+ *
+ *       static {
+ *           // sun.misc.Unsafe.invokeCleaner (jdk.unsupported) frees a direct buffer right away instead of
+ *           // whenever the GC gets round to its small heap object; without it we simply drop the reference.
+ *           java.lang.reflect.Method m = null;
+ *           Object u = null;
+ *           try {
+ *               Class<?> c = Class.forName("sun.misc.Unsafe");
+ *               java.lang.reflect.Field f = c.getDeclaredField("theUnsafe");
+ *               f.setAccessible(true);
+ *               u = f.get(null);
+ *               m = c.getMethod("invokeCleaner", java.nio.ByteBuffer.class);
+ *           } catch (ReflectiveOperationException | RuntimeException e) {
+ *               m = null;
+ *           }
+ *           INVOKE_CLEANER = m;
+ *           UNSAFE = u;
+ *       }
+ *
+ *       static java.nio.ByteBuffer allocate(int bytes) {
+ *           java.nio.ByteBuffer b = java.nio.ByteBuffer.allocateDirect(bytes).order(java.nio.ByteOrder.nativeOrder());
+ *           reservedBytes.addAndGet(bytes);
+ *           chunksAllocated.incrementAndGet();
+ *           return b;
+ *       }
+ *
+ *       static void free(java.nio.ByteBuffer b) {
+ *           reservedBytes.addAndGet(-b.capacity());
+ *           unmap(b);
+ *       }
+ *
+ *       // Releases a direct or memory-mapped buffer now; b must not be used afterwards
+ *       static void unmap(java.nio.ByteBuffer b) {
+ *           if (INVOKE_CLEANER != null) {
+ *               try {
+ *                   INVOKE_CLEANER.invoke(UNSAFE, b);
+ *               } catch (ReflectiveOperationException e) {
+ *                   // leave it to the GC
+ *               }
+ *           }
+ *       }
+ *
+ *       // Native memory currently held by all off-heap queues and stacks
+ *       static long reservedBytes() { return reservedBytes.get(); }
+ *
+ *       // Chunks allocated since start-up; compare with reservedBytes to see how much churn the spare chunk saves
+ *       static long chunksAllocated() { return chunksAllocated.get(); }
+ *   }
+ *
+ *   class OffHeapIntQueue implements QueueADT {
+ *       private final int chunkInts;
+ *       private final java.util.ArrayDeque<java.nio.ByteBuffer> chunks = new java.util.ArrayDeque<>();
+ *       private java.nio.ByteBuffer spare;                  // one emptied chunk kept back for the next grow
+ *       private int readPos, writePos;                       // int offsets inside the first and last chunk
+ *       private long size;
+ *
+ *       OffHeapIntQueue() { this(1 << 20); }                 // 4 MB chunks
+ *
+ *       OffHeapIntQueue(int chunkInts) {
+ *           if (chunkInts <= 0 || chunkInts > Integer.MAX_VALUE / Integer.BYTES) throw new IllegalArgumentException("chunkInts out of range");
+ *           this.chunkInts = chunkInts;
+ *       }
+ *
+ *       public void enqueue(int x) {
+ *           if (chunks.isEmpty() || writePos == chunkInts) {
+ *               chunks.addLast(spare != null ? spare : OffHeapChunks.allocate(chunkInts * Integer.BYTES));
+ *               spare = null;
+ *               writePos = 0;
+ *           }
+ *           chunks.peekLast().putInt(writePos++ * Integer.BYTES, x);
+ *           size++;
+ *       }
+ *
+ *       public int dequeue() {
+ *           if (size == 0) throw new RuntimeException("Queue underflow");
+ *           int val = chunks.peekFirst().getInt(readPos++ * Integer.BYTES);
+ *           size--;
+ *           if (size == 0) {
+ *               // Only one chunk is left and it is fully read: rewind it instead of freeing it
+ *               readPos = writePos = 0;
+ *           } else if (readPos == chunkInts) {
+ *               // Front chunk fully read: give its memory back right away
+ *               release(chunks.pollFirst());
+ *               readPos = 0;
+ *           }
+ *           return val;
+ *       }
+ *
+ *       public int peek() {
+ *           if (size == 0) throw new RuntimeException("Queue underflow");
+ *           return chunks.peekFirst().getInt(readPos * Integer.BYTES);
+ *       }
+ *
+ *       public boolean isEmpty() { return size == 0; }
+ *
+ *       long size() { return size; }
+ *
+ *       // Native bytes held by this queue, including the spare chunk
+ *       long reservedBytes() {
+ *           return (long) (chunks.size() + (spare != null ? 1 : 0)) * chunkInts * Integer.BYTES;
+ *       }
+ *
+ *       // Frees all native memory; the queue is empty and usable afterwards
+ *       void clear() {
+ *           while (!chunks.isEmpty()) OffHeapChunks.free(chunks.pollFirst());
+ *           if (spare != null) OffHeapChunks.free(spare);
+ *           spare = null;
+ *           readPos = writePos = 0;
+ *           size = 0;
+ *       }
+ *
+ *       private void release(java.nio.ByteBuffer chunk) {
+ *           if (spare == null) spare = chunk;
+ *           else OffHeapChunks.free(chunk);
+ *       }
+ *   }
+ *
+ *   class OffHeapIntStack implements StackADT {
+ *       private final int chunkInts;
+ *       private final java.util.ArrayList<java.nio.ByteBuffer> chunks = new java.util.ArrayList<>();
+ *       private java.nio.ByteBuffer spare;
+ *       private int topPos;                                  // ints used in the last chunk
+ *       private long size;
+ *
+ *       OffHeapIntStack() { this(1 << 20); }
+ *
+ *       OffHeapIntStack(int chunkInts) {
+ *           if (chunkInts <= 0 || chunkInts > Integer.MAX_VALUE / Integer.BYTES) throw new IllegalArgumentException("chunkInts out of range");
+ *           this.chunkInts = chunkInts;
+ *       }
+ *
+ *       public void push(int x) {
+ *           if (chunks.isEmpty() || topPos == chunkInts) {
+ *               chunks.add(spare != null ? spare : OffHeapChunks.allocate(chunkInts * Integer.BYTES));
+ *               spare = null;
+ *               topPos = 0;
+ *           }
+ *           chunks.get(chunks.size() - 1).putInt(topPos++ * Integer.BYTES, x);
+ *           size++;
+ *       }
+ *
+ *       public int pop() {
+ *           if (size == 0) throw new RuntimeException("Stack underflow");
+ *           int val = chunks.get(chunks.size() - 1).getInt(--topPos * Integer.BYTES);
+ *           size--;
+ *           // Top chunk emptied: drop it, unless it is the last one. The freed chunk becomes the spare,
+ *           // so push/pop right at a chunk boundary does not allocate and free over and over.
+ *           if (topPos == 0 && chunks.size() > 1) {
+ *               java.nio.ByteBuffer done = chunks.remove(chunks.size() - 1);
+ *               if (spare == null) spare = done;
+ *               else OffHeapChunks.free(done);
+ *               topPos = chunkInts;
+ *           }
+ *           return val;
+ *       }
+ *
+ *       public int peek() {
+ *           if (size == 0) throw new RuntimeException("Stack underflow");
+ *           return chunks.get(chunks.size() - 1).getInt((topPos - 1) * Integer.BYTES);
+ *       }
+ *
+ *       public boolean isEmpty() { return size == 0; }
+ *
+ *       long size() { return size; }
+ *
+ *       long reservedBytes() {
+ *           return (long) (chunks.size() + (spare != null ? 1 : 0)) * chunkInts * Integer.BYTES;
+ *       }
+ *
+ *       void clear() {
+ *           for (java.nio.ByteBuffer chunk : chunks) OffHeapChunks.free(chunk);
+ *           chunks.clear();
+ *           if (spare != null) OffHeapChunks.free(spare);
+ *           spare = null;
+ *           topPos = 0;
+ *           size = 0;
+ *       }
+ *   }
+ *
+ * Demo: fill with 100 million ints, drain, and print native vs heap usage
+ * (native ~390 MB at the peak while the heap stays around 2 MB).
+ *
+ *   class OffHeapBacklogDemo {
+ *       // Fills a queue with N ints (default 100 million, or pass N), then drains it,
+ *       // printing native vs heap usage along the way. Direct memory is capped at -Xmx unless raised,
+ *       // e.g. java -Xmx64m -XX:MaxDirectMemorySize=1g OffHeapBacklogDemo
+ *       public static void main(String[] args) {
+ *           long n = args.length > 0 ? Long.parseLong(args[0]) : 100_000_000L;
+ *           OffHeapIntQueue queue = new OffHeapIntQueue();
+ *           for (long i = 0; i < n; i++) queue.enqueue((int) i);
+ *           report("after enqueue", queue);
+ *
+ *           for (long i = 0; i < n / 2; i++) {
+ *               if (queue.dequeue() != (int) i) throw new AssertionError("FIFO order broken at " + i);
+ *           }
+ *           report("half drained", queue);
+ *
+ *           for (long i = n / 2; i < n; i++) {
+ *               if (queue.dequeue() != (int) i) throw new AssertionError("FIFO order broken at " + i);
+ *           }
+ *           report("drained", queue);
+ *           queue.clear();
+ *           report("cleared", queue);
+ *       }
+ *
+ *       static void report(String label, OffHeapIntQueue queue) {
+ *           Runtime rt = Runtime.getRuntime();
+ *           long direct = 0;
+ *           for (java.lang.management.BufferPoolMXBean pool
+ *                   : java.lang.management.ManagementFactory.getPlatformMXBeans(java.lang.management.BufferPoolMXBean.class)) {
+ *               if (pool.getName().equals("direct")) direct = pool.getMemoryUsed();
+ *           }
+ *           System.out.printf("%-14s size=%,d queue=%,d KB all off-heap=%,d KB (JVM direct pool %,d KB) heap used=%,d KB%n",
+ *                   label, queue.size(), queue.reservedBytes() / 1024, OffHeapChunks.reservedBytes() / 1024,
+ *                   direct / 1024, (rt.totalMemory() - rt.freeMemory()) / 1024);
+ *       }
+ *   }
+ *
+ * Complexity:
+ *   - enqueue, dequeue, push, pop, peek -> O(1); one chunk allocation per chunkInts pushes.
+ *   - Memory -> 4 bytes per value plus at most two partly used chunks and one spare.
+ *
+ *
+ * 15) DISK-SPILLING PERSISTENT QUEUE
+ * ------------------------------------------------------------------------------------------
+ * If consumers fall behind, QueueLL (or any in-memory queue) grows until the JVM runs out of
+ * memory. A spilling queue keeps only a bounded part in memory and puts the rest on disk:
+ *   - In-memory head: an IntRingQueue holding at most memoryInts values, always the front
+ *     of the queue. While nothing has spilled, the queue is purely in memory.
+ *   - Once the head is full (or something is already on disk), enqueue appends to the tail
+ *     on disk instead, so FIFO order is kept.
+ *   - Disk = append-only segment files of a fixed size, memory-mapped. Writing is a putInt
+ *     into the mapped page (no read/write system call, no extra copy); at most one read and
+ *     one write segment are mapped at a time.
+ *   - When the head runs dry, the next batch is bulk-copied out of the mapped segment.
+ *   - A fully read segment is unmapped; its file is deleted by a background thread once
+ *     every value in it has been dequeued.
+ *   - meta.dat (also mapped) holds the read and write positions, so reopening the same
+ *     directory resumes where the queue left off; close() saves the in-memory head to
+ *     head.dat first. The read position only moves as values are dequeued, not when a
+ *     batch is copied into the head, so values that came from disk survive a crash.
+ *   - sync() forces the pages to disk; without it a machine crash can lose the most recent
+ *     writes. A process crash loses only the values that never spilled (the ones enqueued
+ *     while the head still had room and nothing was on disk).
+ *   - Not thread-safe, like QueueLL: one thread (or outside locking) at a time.
+ */
+ *   class SpillingIntQueue implements QueueADT, java.io.Closeable {
+ *       // meta.dat layout: first disk index not yet dequeued, next disk index to write, ints per segment
+ *       private static final int META_READ = 0, META_WRITE = 8, META_SEGMENT = 16, META_BYTES = 24;
+ *
+ *       private final java.nio.file.Path dir;
+ *       private final int memoryInts;                        // bound on the in-memory head
+ *       private final int segmentInts;
+ *       private final IntRingQueue head;                     // front of the queue, always before anything on disk
+ *       private final java.nio.MappedByteBuffer meta;
+ *       private long diskRead, diskWrite;                    // global int positions across all segments
+ *       // The first values in head that were copied from disk but not dequeued yet. Only the values
+ *       // before them are recorded as read in meta.dat, so a crash re-reads them instead of losing them.
+ *       private int unconsumedFromDisk;
+ *       private long reclaimedBelow;                         // segments below this number are deleted
+ *       private java.nio.MappedByteBuffer readSegment, writeSegment;
+ *       private long readSegmentNo = -1, writeSegmentNo = -1;
+ *       private boolean closed;                              // segments and meta are unmapped: no access after this
+ *       private final java.util.concurrent.ExecutorService reclaimer =
+ *               java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+ *                   Thread t = new Thread(r, "segment-reclaimer");
+ *                   t.setDaemon(true);
+ *                   return t;
+ *               });
+ *
+ *       SpillingIntQueue(java.nio.file.Path dir) throws java.io.IOException {
+ *           this(dir, 1 << 16, 1 << 20);                     // 64K ints in memory, 4 MB segment files
+ *       }
+ *
+ *       // Opens the queue stored in dir, or creates an empty one; segmentInts only applies to a new queue
+ *       SpillingIntQueue(java.nio.file.Path dir, int memoryInts, int segmentInts) throws java.io.IOException {
+ *           if (memoryInts <= 0 || segmentInts <= 0 || segmentInts > Integer.MAX_VALUE / Integer.BYTES)
+ *               throw new IllegalArgumentException("memoryInts and segmentInts must be positive");
+ *           this.dir = java.nio.file.Files.createDirectories(dir);
+ *           this.memoryInts = memoryInts;
+ *           this.head = new IntRingQueue(memoryInts);
+ *
+ *           java.nio.file.Path metaFile = dir.resolve("meta.dat");
+ *           boolean fresh = !java.nio.file.Files.exists(metaFile);
+ *           meta = map(metaFile, META_BYTES);
+ *           if (fresh) meta.putLong(META_SEGMENT, segmentInts);
+ *           this.segmentInts = (int) meta.getLong(META_SEGMENT);
+ *           diskRead = meta.getLong(META_READ);
+ *           diskWrite = meta.getLong(META_WRITE);
+ *
+ *           // The in-memory head saved by close(), which comes before everything still on disk
+ *           java.nio.file.Path headFile = dir.resolve("head.dat");
+ *           if (java.nio.file.Files.exists(headFile)) {
+ *               java.nio.ByteBuffer saved = java.nio.ByteBuffer.wrap(java.nio.file.Files.readAllBytes(headFile));
+ *               int[] values = new int[saved.remaining() / Integer.BYTES];
+ *               saved.asIntBuffer().get(values);
+ *               head.enqueueAll(values, 0, values.length);
+ *               java.nio.file.Files.delete(headFile);
+ *           }
+ *
+ *           // Segments left behind by a crash before the reclaimer got to them
+ *           long firstLive = diskRead / this.segmentInts;
+ *           reclaimedBelow = firstLive;
+ *           reclaimer.execute(() -> {
+ *               try (java.nio.file.DirectoryStream<java.nio.file.Path> files =
+ *                            java.nio.file.Files.newDirectoryStream(this.dir, "segment-*.dat")) {
+ *                   for (java.nio.file.Path f : files) {
+ *                       String name = f.getFileName().toString();
+ *                       if (Long.parseLong(name.substring(8, name.length() - 4)) < firstLive)
+ *                           java.nio.file.Files.deleteIfExists(f);
+ *                   }
+ *               } catch (java.io.IOException e) {
+ *                   // retried on the next open
+ *               }
+ *           });
+ *       }
+ *
+ *       public void enqueue(int x) {
+ *           ensureOpen();
+ *           // Stay in memory while nothing has spilled and the head has room; otherwise append to disk
+ *           if (diskRead == diskWrite && head.size() < memoryInts) {
+ *               head.enqueue(x);
+ *               return;
+ *           }
+ *           int offset = (int) (diskWrite % segmentInts);
+ *           segmentForWrite().putInt(offset * Integer.BYTES, x);
+ *           diskWrite++;
+ *           meta.putLong(META_WRITE, diskWrite);
+ *       }
+ *
+ *       public int dequeue() {
+ *           ensureOpen();
+ *           if (head.isEmpty()) refill();
+ *           int val = head.dequeue();                        // throws "Queue underflow" if still empty
+ *           if (unconsumedFromDisk > 0) {
+ *               unconsumedFromDisk--;
+ *               commitRead(diskRead - unconsumedFromDisk);
+ *           }
+ *           return val;
+ *       }
+ *
+ *       public int peek() {
+ *           ensureOpen();
+ *           if (head.isEmpty()) refill();
+ *           return head.peek();
+ *       }
+ *
+ *       public boolean isEmpty() {
+ *           ensureOpen();
+ *           return head.isEmpty() && diskRead == diskWrite;
+ *       }
+ *
+ *       long size() {
+ *           ensureOpen();
+ *           return head.size() + (diskWrite - diskRead);
+ *       }
+ *
+ *       long spilledInts() {
+ *           ensureOpen();
+ *           return diskWrite - diskRead;
+ *       }
+ *
+ *       // Flushes written segments and the read/write positions to the device
+ *       void sync() {
+ *           ensureOpen();
+ *           if (writeSegment != null) writeSegment.force();
+ *           meta.force();
+ *       }
+ *
+ *       // Saves the in-memory head next to the segments; reopening the directory resumes the queue.
+ *       // Values copied from disk are only marked read once head.dat is in place, so a crash in between
+ *       // delivers them twice rather than never. Closing again does nothing: a second save would
+ *       // overwrite head.dat with an empty head.
+ *       public void close() throws java.io.IOException {
+ *           if (closed) return;
+ *           int[] values = new int[head.size()];
+ *           head.drainTo(values, 0, values.length);
+ *           java.nio.ByteBuffer bytes = java.nio.ByteBuffer.allocate(values.length * Integer.BYTES);
+ *           bytes.asIntBuffer().put(values);
+ *           java.nio.file.Path tmp = dir.resolve("head.dat.tmp");
+ *           java.nio.file.Files.write(tmp, bytes.array());
+ *           java.nio.file.Files.move(tmp, dir.resolve("head.dat"), java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+ *           unconsumedFromDisk = 0;
+ *           commitRead(diskRead);
+ *
+ *           sync();
+ *           closed = true;
+ *           if (readSegment != null && readSegment != writeSegment) OffHeapChunks.unmap(readSegment);
+ *           if (writeSegment != null) OffHeapChunks.unmap(writeSegment);
+ *           OffHeapChunks.unmap(meta);
+ *           readSegment = writeSegment = null;
+ *           reclaimer.shutdown();
+ *           try {
+ *               reclaimer.awaitTermination(10, java.util.concurrent.TimeUnit.SECONDS);
+ *           } catch (InterruptedException e) {
+ *               Thread.currentThread().interrupt();
+ *           }
+ *       }
+ *
+ *       private void ensureOpen() {
+ *           if (closed) throw new IllegalStateException("queue is closed");
+ *       }
+ *
+ *       // Moves the next batch (up to memoryInts) from disk into the in-memory head. Only called when the
+ *       // head is empty; the read position in meta.dat moves later, one dequeue at a time.
+ *       private void refill() {
+ *           int[] batch = new int[(int) Math.min(memoryInts, diskWrite - diskRead)];
+ *           int filled = 0;
+ *           while (filled < batch.length) {
+ *               int offset = (int) (diskRead % segmentInts);
+ *               int n = Math.min(batch.length - filled, segmentInts - offset);
+ *               java.nio.IntBuffer ints = segmentForRead().asIntBuffer();
+ *               ints.position(offset);
+ *               ints.get(batch, filled, n);                  // bulk copy straight out of the mapped file
+ *               filled += n;
+ *               diskRead += n;
+ *               if (diskRead % segmentInts == 0) retireReadSegment();
+ *           }
+ *           head.enqueueAll(batch, 0, filled);
+ *           unconsumedFromDisk = filled;
+ *       }
+ *
+ *       // The reader has copied everything out of this segment: unmap it (the file stays until consumed)
+ *       private void retireReadSegment() {
+ *           if (readSegment != writeSegment) OffHeapChunks.unmap(readSegment);
+ *           readSegment = null;
+ *           readSegmentNo = -1;
+ *       }
+ *
+ *       // Records everything before position as consumed; segments that are now entirely consumed are
+ *       // deleted by the background thread
+ *       private void commitRead(long position) {
+ *           meta.putLong(META_READ, position);
+ *           long firstLive = position / segmentInts;
+ *           for (; reclaimedBelow < firstLive; reclaimedBelow++) {
+ *               java.nio.file.Path file = segmentFile(reclaimedBelow);
+ *               reclaimer.execute(() -> {
+ *                   try {
+ *                       java.nio.file.Files.deleteIfExists(file);
+ *                   } catch (java.io.IOException e) {
+ *                       // picked up by the scan on the next open
+ *                   }
+ *               });
+ *           }
+ *       }
+ *
+ *       private java.nio.MappedByteBuffer segmentForRead() {
+ *           long no = diskRead / segmentInts;
+ *           if (no != readSegmentNo) {
+ *               readSegment = no == writeSegmentNo ? writeSegment : mapSegment(no);
+ *               readSegmentNo = no;
+ *           }
+ *           return readSegment;
+ *       }
+ *
+ *       private java.nio.MappedByteBuffer segmentForWrite() {
+ *           long no = diskWrite / segmentInts;
+ *           if (no != writeSegmentNo) {
+ *               if (writeSegment != null && writeSegment != readSegment) OffHeapChunks.unmap(writeSegment);
+ *               writeSegment = no == readSegmentNo ? readSegment : mapSegment(no);
+ *               writeSegmentNo = no;
+ *           }
+ *           return writeSegment;
+ *       }
+ *
+ *       private java.nio.MappedByteBuffer mapSegment(long no) {
+ *           try {
+ *               return map(segmentFile(no), (long) segmentInts * Integer.BYTES);
+ *           } catch (java.io.IOException e) {
+ *               throw new java.io.UncheckedIOException(e);
+ *           }
+ *       }
+ *
+ *       private java.nio.file.Path segmentFile(long no) {
+ *           return dir.resolve(String.format("segment-%016d.dat", no));
+ *       }
+ *
+ *       private static java.nio.MappedByteBuffer map(java.nio.file.Path file, long bytes) throws java.io.IOException {
+ *           try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(file,
+ *                   java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.READ,
+ *                   java.nio.file.StandardOpenOption.WRITE)) {
+ *               java.nio.MappedByteBuffer b = ch.map(java.nio.channels.FileChannel.MapMode.READ_WRITE, 0, bytes);
+ *               b.order(java.nio.ByteOrder.nativeOrder());
+ *               return b;
+ *           }
+ *       }
+ *   }
+ *
+ * Complexity:
+ *   - enqueue -> O(1): a ring slot or a store into a mapped page; a new segment every
+ *     segmentInts values.
+ *   - dequeue, peek -> O(1) amortized; one bulk refill per memoryInts values.
+ *   - Memory -> memoryInts ints + 2 mapped segments, however long the queue gets.
+ *
+ *
+ * 16) INDEXED D-ARY MIN-HEAP (PRIORITY QUEUE WITH DECREASE-KEY)
+ * ------------------------------------------------------------------------------------------
+ * MinHeapPriorityQueue stores bare values: it cannot find an element again to change its
+ * priority, so a scheduler has to insert a duplicate and skip stale copies later (the heap
+ * fills up with garbage). It also stops at a fixed capacity.
+ *
+ * Indexed heap: the heap stores ids (0, 1, 2, ...) and each id has a priority.
+ *   - heap[i]  = id at heap slot i
+ *   - keys[id] = priority of id (long)
+ *   - pos[id]  = slot of id in heap, -1 if absent  -> find any id in O(1)
+ *   - decreaseKey: lower keys[id], bubble up from pos[id].
+ *   - increaseKey: raise keys[id], heapify down from pos[id].
+ *   - remove(id):  move the last id into its slot, then up or down.
+ *   - Every move of an id also updates pos[]. Arrays double when full.
+ *
+ * d-ary instead of binary (default d = 4):
+ *   - parent(i) = (i - 1) / d,  children(i) = d*i + 1 ... d*i + d
+ *   - Height is log_d(n): half as many levels as a binary heap for d = 4, so bubbling up
+ *     (insert, decreaseKey) is cheaper.
+ *   - Heapify down compares d children per level, but they sit next to each other in the
+ *     array, so it is roughly one cache line per level instead of one per comparison.
+ */
+ *   class IndexedMinHeap {
+ *       private final int d;         // children per node
+ *       private int[] heap;          // heap[i] = id stored at heap slot i
+ *       private int[] pos;           // pos[id] = heap slot of id, or -1 if id is not in the heap
+ *       private long[] keys;         // keys[id] = priority of id
+ *       private int size;
+ *
+ *       IndexedMinHeap() { this(4); }
+ *
+ *       IndexedMinHeap(int d) { this(d, 16); }
+ *
+ *       IndexedMinHeap(int d, int initialCapacity) {
+ *           if (d < 2) throw new IllegalArgumentException("d must be at least 2");
+ *           this.d = d;
+ *           int capacity = Math.max(1, initialCapacity);
+ *           heap = new int[capacity];
+ *           pos = new int[capacity];
+ *           keys = new long[capacity];
+ *           java.util.Arrays.fill(pos, -1);
+ *       }
+ *
+ *       int size() { return size; }
+ *       boolean isEmpty() { return size == 0; }
+ *
+ *       boolean contains(int id) { return id >= 0 && id < pos.length && pos[id] >= 0; }
+ *
+ *       long keyOf(int id) {
+ *           if (!contains(id)) throw new java.util.NoSuchElementException("id " + id + " is not in the heap");
+ *           return keys[id];
+ *       }
+ *
+ *       // Ids may be any non-negative int; the id-indexed arrays grow to fit the largest one used
+ *       void insert(int id, long key) {
+ *           if (id < 0) throw new IllegalArgumentException("id must be non-negative");
+ *           if (contains(id)) throw new IllegalArgumentException("id " + id + " is already in the heap");
+ *           if (id >= pos.length) growIds(id + 1);
+ *           if (size == heap.length) heap = java.util.Arrays.copyOf(heap, size * 2);
+ *           keys[id] = key;
+ *           siftUp(size++, id);
+ *       }
+ *
+ *       int peekMin() {
+ *           if (size == 0) throw new RuntimeException("Empty");
+ *           return heap[0];
+ *       }
+ *
+ *       long minKey() { return keys[peekMin()]; }
+ *
+ *       // Removes the id with the smallest key and returns it
+ *       int deleteMin() {
+ *           int min = peekMin();
+ *           removeAt(0);
+ *           return min;
+ *       }
+ *
+ *       void decreaseKey(int id, long newKey) {
+ *           if (newKey > keyOf(id)) throw new IllegalArgumentException("new key is larger than the current key");
+ *           keys[id] = newKey;
+ *           siftUp(pos[id], id);
+ *       }
+ *
+ *       void increaseKey(int id, long newKey) {
+ *           if (newKey < keyOf(id)) throw new IllegalArgumentException("new key is smaller than the current key");
+ *           keys[id] = newKey;
+ *           siftDown(pos[id], id);
+ *       }
+ *
+ *       void remove(int id) {
+ *           keyOf(id);                                       // throws if absent
+ *           removeAt(pos[id]);
+ *       }
+ *
+ *       // Moves the last id into slot i and lets it settle in whichever direction it has to
+ *       private void removeAt(int i) {
+ *           int removed = heap[i];
+ *           pos[removed] = -1;
+ *           int last = heap[--size];
+ *           if (i == size) return;
+ *           if (i > 0 && keys[last] < keys[heap[(i - 1) / d]]) siftUp(i, last);
+ *           else siftDown(i, last);
+ *       }
+ *
+ *       // Places id at slot i or above; parents are shifted down into the hole instead of swapped
+ *       private void siftUp(int i, int id) {
+ *           long key = keys[id];
+ *           while (i > 0) {
+ *               int parent = (i - 1) / d;
+ *               int p = heap[parent];
+ *               if (keys[p] <= key) break;
+ *               heap[i] = p;
+ *               pos[p] = i;
+ *               i = parent;
+ *           }
+ *           heap[i] = id;
+ *           pos[id] = i;
+ *       }
+ *
+ *       private void siftDown(int i, int id) {
+ *           long key = keys[id];
+ *           while (true) {
+ *               int first = d * i + 1;
+ *               if (first >= size) break;
+ *               // smallest of the (up to d) children: adjacent slots, so usually one or two cache lines
+ *               int best = first;
+ *               long bestKey = keys[heap[first]];
+ *               int end = Math.min(first + d, size);
+ *               for (int c = first + 1; c < end; c++) {
+ *                   long k = keys[heap[c]];
+ *                   if (k < bestKey) {
+ *                       best = c;
+ *                       bestKey = k;
+ *                   }
+ *               }
+ *               if (bestKey >= key) break;
+ *               int child = heap[best];
+ *               heap[i] = child;
+ *               pos[child] = i;
+ *               i = best;
+ *           }
+ *           heap[i] = id;
+ *           pos[id] = i;
+ *       }
+ *
+ *       private void growIds(int needed) {
+ *           int capacity = Math.max(needed, pos.length * 2);
+ *           int old = pos.length;
+ *           pos = java.util.Arrays.copyOf(pos, capacity);
+ *           java.util.Arrays.fill(pos, old, capacity, -1);
+ *           keys = java.util.Arrays.copyOf(keys, capacity);
+ *       }
+ *   }
+ *
+ * Complexity:
+ *   - insert, decreaseKey -> O(log_d n)
+ *   - deleteMin, increaseKey, remove(id) -> O(d log_d n)
+ *   - peekMin, contains, keyOf -> O(1)
+ *   - Memory -> an int + a long per id and an int per heap slot; no objects per element.
+ *
+ *
+ * 17) DEQUE (DOUBLE-ENDED QUEUE) ON A CIRCULAR ARRAY
+ * ------------------------------------------------------------------------------------------
+ * DEQUE: push and pop at BOTH ends.
+ *   pushFirst(x), pushLast(x), popFirst(), popLast(), peekFirst(), peekLast()
+ *   - Used as a stack (one end) or a queue (push one end, pop the other), and for
+ *     sliding-window algorithms and work stealing (owner at the back, thieves at the front).
+ *
+ * Circular array, like IntRingQueue in section 9, with head allowed to move both ways:
+ *   - pushFirst: head = (head - 1) & mask, store there.
+ *   - pushLast:  store at (head + size) & mask.
+ *   - get(i):    ring[(head + i) & mask] -> random access in O(1), unlike a linked list.
+ *   - Full: double the array and unwrap (amortized O(1)).
+ *
+ * DequeADT extends both StackADT and QueueADT, so an IntDeque can replace either one.
+ * LongDeque is the same code for long values (Java generics cannot hold primitives).
+ */
+ *   interface DequeADT extends StackADT, QueueADT {
+ *       void pushFirst(int x);
+ *       void pushLast(int x);
+ *       int popFirst();
+ *       int popLast();
+ *       int peekFirst();
+ *       int peekLast();
+ *       int get(int i);          // i-th element from the front
+ *       int size();
+ *   }
+ *
+ *   class IntDeque implements DequeADT {
+ *       private int[] ring;      // capacity is always a power of two
+ *       private int mask;
+ *       private int head;        // index of the first element
+ *       private int size;
+ *
+ *       IntDeque() { this(16); }
+ *
+ *       IntDeque(int initialCapacity) {
+ *           int capacity = Integer.highestOneBit(Math.max(2, initialCapacity) - 1) << 1;
+ *           ring = new int[capacity];
+ *           mask = capacity - 1;
+ *       }
+ *
+ *       public void pushFirst(int x) {
+ *           if (size == ring.length) grow();
+ *           head = (head - 1) & mask;
+ *           ring[head] = x;
+ *           size++;
+ *       }
+ *
+ *       public void pushLast(int x) {
+ *           if (size == ring.length) grow();
+ *           ring[(head + size) & mask] = x;
+ *           size++;
+ *       }
+ *
+ *       public int popFirst() {
+ *           if (size == 0) throw new RuntimeException("Deque underflow");
+ *           int val = ring[head];
+ *           head = (head + 1) & mask;
+ *           size--;
+ *           return val;
+ *       }
+ *
+ *       public int popLast() {
+ *           if (size == 0) throw new RuntimeException("Deque underflow");
+ *           size--;
+ *           return ring[(head + size) & mask];
+ *       }
+ *
+ *       public int peekFirst() {
+ *           if (size == 0) throw new RuntimeException("Deque underflow");
+ *           return ring[head];
+ *       }
+ *
+ *       public int peekLast() {
+ *           if (size == 0) throw new RuntimeException("Deque underflow");
+ *           return ring[(head + size - 1) & mask];
+ *       }
+ *
+ *       public int get(int i) {
+ *           if (i < 0 || i >= size) throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+ *           return ring[(head + i) & mask];
+ *       }
+ *
+ *       public int size() { return size; }
+ *       public boolean isEmpty() { return size == 0; }
+ *
+ *       // StackADT: the top is the front. QueueADT: enqueue at the back, dequeue from the front.
+ *       public void push(int x) { pushFirst(x); }
+ *       public int pop() { return popFirst(); }
+ *       public int peek() { return peekFirst(); }
+ *       public void enqueue(int x) { pushLast(x); }
+ *       public int dequeue() { return popFirst(); }
+ *
+ *       // Doubles the ring and unwraps the contents so the front is at index 0 again
+ *       private void grow() {
+ *           int[] bigger = new int[ring.length * 2];
+ *           int first = Math.min(size, ring.length - head);
+ *           System.arraycopy(ring, head, bigger, 0, first);
+ *           System.arraycopy(ring, 0, bigger, first, size - first);
+ *           ring = bigger;
+ *           mask = bigger.length - 1;
+ *           head = 0;
+ *       }
+ *   }
+ *
+ *   // Same deque for long values (timestamps, packed pairs); same method names, long instead of int
+ *   class LongDeque {
+ *       private long[] ring;
+ *       private int mask;
+ *       private int head;
+ *       private int size;
+ *
+ *       LongDeque() { this(16); }
+ *
+ *       LongDeque(int initialCapacity) {
+ *           int capacity = Integer.highestOneBit(Math.max(2, initialCapacity) - 1) << 1;
+ *           ring = new long[capacity];
+ *           mask = capacity - 1;
+ *       }
+ *
+ *       void pushFirst(long x) {
+ *           if (size == ring.length) grow();
+ *           head = (head - 1) & mask;
+ *           ring[head] = x;
+ *           size++;
+ *       }
+ *
+ *       void pushLast(long x) {
+ *           if (size == ring.length) grow();
+ *           ring[(head + size) & mask] = x;
+ *           size++;
+ *       }
+ *
+ *       long popFirst() {
+ *           if (size == 0) throw new RuntimeException("Deque underflow");
+ *           long val = ring[head];
+ *           head = (head + 1) & mask;
+ *           size--;
+ *           return val;
+ *       }
+ *
+ *       long popLast() {
+ *           if (size == 0) throw new RuntimeException("Deque underflow");
+ *           size--;
+ *           return ring[(head + size) & mask];
+ *       }
+ *
+ *       long peekFirst() {
+ *           if (size == 0) throw new RuntimeException("Deque underflow");
+ *           return ring[head];
+ *       }
+ *
+ *       long peekLast() {
+ *           if (size == 0) throw new RuntimeException("Deque underflow");
+ *           return ring[(head + size - 1) & mask];
+ *       }
+ *
+ *       long get(int i) {
+ *           if (i < 0 || i >= size) throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+ *           return ring[(head + i) & mask];
+ *       }
+ *
+ *       int size() { return size; }
+ *       boolean isEmpty() { return size == 0; }
+ *
+ *       private void grow() {
+ *           long[] bigger = new long[ring.length * 2];
+ *           int first = Math.min(size, ring.length - head);
+ *           System.arraycopy(ring, head, bigger, 0, first);
+ *           System.arraycopy(ring, 0, bigger, first, size - first);
+ *           ring = bigger;
+ *           mask = bigger.length - 1;
+ *           head = 0;
+ *       }
+ *   }
+ *
+ * Benchmark against java.util.ArrayDeque<Integer> (same circular-array idea, but every
+ * value is boxed): sliding-window maximum over 10 million ints, and a push/pop mix at
+ * both ends.
+ *
+ *   class DequeBenchmark {
+ *       static final int N = 10_000_000;
+ *       static final int WINDOW = 1000;
+ *
+ *       public static void main(String[] args) {
+ *           int[] data = new int[N];
+ *           java.util.Random rnd = new java.util.Random(42);
+ *           for (int i = 0; i < N; i++) data[i] = rnd.nextInt();
+ *
+ *           for (int round = 0; round < 5; round++) {
+ *               long t0 = System.nanoTime();
+ *               long a = slidingMaxIntDeque(data);
+ *               long t1 = System.nanoTime();
+ *               long b = slidingMaxArrayDeque(data);
+ *               long t2 = System.nanoTime();
+ *               long c = bothEndsIntDeque();
+ *               long t3 = System.nanoTime();
+ *               long d = bothEndsArrayDeque();
+ *               long t4 = System.nanoTime();
+ *               if (a != b || c != d) throw new AssertionError("results differ");
+ *               System.out.printf("sliding max: IntDeque %4d ms  ArrayDeque %4d ms | both ends: IntDeque %4d ms  ArrayDeque %4d ms%n",
+ *                       (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, (t3 - t2) / 1_000_000, (t4 - t3) / 1_000_000);
+ *           }
+ *       }
+ *
+ *       // Maximum of every window of WINDOW values; the deque holds indices whose values are decreasing
+ *       static long slidingMaxIntDeque(int[] data) {
+ *           IntDeque dq = new IntDeque();
+ *           long sum = 0;
+ *           for (int i = 0; i < data.length; i++) {
+ *               while (!dq.isEmpty() && data[dq.peekLast()] <= data[i]) dq.popLast();
+ *               dq.pushLast(i);
+ *               if (dq.peekFirst() <= i - WINDOW) dq.popFirst();
+ *               if (i >= WINDOW - 1) sum += data[dq.peekFirst()];
+ *           }
+ *           return sum;
+ *       }
+ *
+ *       static long slidingMaxArrayDeque(int[] data) {
+ *           java.util.ArrayDeque<Integer> dq = new java.util.ArrayDeque<>();
+ *           long sum = 0;
+ *           for (int i = 0; i < data.length; i++) {
+ *               while (!dq.isEmpty() && data[dq.peekLast()] <= data[i]) dq.pollLast();
+ *               dq.addLast(i);
+ *               if (dq.peekFirst() <= i - WINDOW) dq.pollFirst();
+ *               if (i >= WINDOW - 1) sum += data[dq.peekFirst()];
+ *           }
+ *           return sum;
+ *       }
+ *
+ *       // Owner pushes and pops at the back, a "thief" takes from the front, as in work stealing
+ *       static long bothEndsIntDeque() {
+ *           IntDeque dq = new IntDeque();
+ *           long sum = 0;
+ *           for (int i = 0; i < N; i++) {
+ *               dq.pushLast(i);
+ *               dq.pushLast(i + 1);
+ *               sum += dq.popLast();
+ *               if ((i & 3) == 0) sum += dq.popFirst();
+ *           }
+ *           return sum;
+ *       }
+ *
+ *       static long bothEndsArrayDeque() {
+ *           java.util.ArrayDeque<Integer> dq = new java.util.ArrayDeque<>();
+ *           long sum = 0;
+ *           for (int i = 0; i < N; i++) {
+ *               dq.addLast(i);
+ *               dq.addLast(i + 1);
+ *               sum += dq.pollLast();
+ *               if ((i & 3) == 0) sum += dq.pollFirst();
+ *           }
+ *           return sum;
+ *       }
+ *   }
+ *
+ * Complexity:
+ *   - pushFirst, pushLast -> O(1) amortized
+ *   - popFirst, popLast, peekFirst, peekLast, get(i) -> O(1)
+ *   - Memory -> 4 (or 8) bytes per slot, capacity at most 2 x size after growth.
+ *
+ *
+ * 18) INSTRUMENTED STACK / QUEUE / PRIORITY QUEUE (METRICS DECORATORS)
+ * ------------------------------------------------------------------------------------------
+ * Decorator: a class with the same operations that wraps the real structure, forwards every
+ * call to it and records something on the way. The wrapped StackLL / QueueLL /
+ * MinHeapPriorityQueue is not changed at all.
+ *
+ * What is recorded per structure:
+ *   - Count and latency of each operation, in a log-linear histogram (HdrHistogram idea:
+ *     8 buckets per power of two -> p50 / p99 / p99.9 within 12.5%, fixed 4 KB per op).
+ *   - Bytes allocated by push / enqueue (the JVM's per-thread allocation counter), which
+ *     shows the Node-per-element cost of the linked versions.
+ *   - High-water size.
+ *   - Everything goes into AdtMetrics (a map of name -> stats) and is also registered as
+ *     a JMX MBean "adt:type=...,name=...", so jconsole / VisualVM can watch it live.
+ *
+ * Zero cost when off:
+ *   - AdtMetrics.ENABLED is a static final boolean read once from -Dadt.metrics=true.
+ *   - The JIT treats it as a constant: with it false, "if (!ENABLED) return inner.pop();"
+ *     compiles to just the inner call, which is then inlined.
+ */
+ *   // Log-linear latency histogram in the style of HdrHistogram: 8 buckets per power of two, so every
+ *   // recorded value is within 12.5% of its bucket, from 1 ns up to hours, in under 4 KB.
+ *   // Safe to record from several threads: decorators that share a kind/name share one histogram.
+ *   class LatencyHistogram {
+ *       private static final int SUB_BITS = 3, SUB = 1 << SUB_BITS;
+ *       private final java.util.concurrent.atomic.AtomicLongArray counts = new java.util.concurrent.atomic.AtomicLongArray((64 - SUB_BITS) * SUB);
+ *       private final java.util.concurrent.atomic.AtomicLong max = new java.util.concurrent.atomic.AtomicLong();
+ *
+ *       void record(long nanos) {
+ *           int i = bucket(Math.max(0, nanos));
+ *           counts.getAndIncrement(i);
+ *           if (nanos > max.get()) max.accumulateAndGet(nanos, Math::max);  // skip the CAS in the common case
+ *       }
+ *
+ *       long count() {
+ *           long total = 0;
+ *           for (int i = 0; i < counts.length(); i++) total += counts.get(i);
+ *           return total;
+ *       }
+ *
+ *       long max() { return max.get(); }
+ *
+ *       // Upper edge of the bucket holding the given percentile (0..100)
+ *       long percentile(double p) {
+ *           long total = count();
+ *           if (total == 0) return 0;
+ *           long rank = (long) Math.ceil(p / 100 * total);
+ *           long seen = 0;
+ *           for (int i = 0; i < counts.length(); i++) {
+ *               seen += counts.get(i);
+ *               if (seen >= Math.max(1, rank)) return Math.min(max.get(), upperEdge(i));
+ *           }
+ *           return max.get();
+ *       }
+ *
+ *       void reset() {
+ *           for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+ *           max.set(0);
+ *       }
+ *
+ *       private static int bucket(long v) {
+ *           if (v < SUB) return (int) v;
+ *           int exp = 63 - Long.numberOfLeadingZeros(v);     // >= SUB_BITS
+ *           int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+ *           return (exp - SUB_BITS + 1) * SUB + sub;
+ *       }
+ *
+ *       private static long upperEdge(int i) {
+ *           if (i < SUB) return i;
+ *           int exp = i / SUB + SUB_BITS - 1, sub = i % SUB;
+ *           return ((long) (SUB + sub + 1) << (exp - SUB_BITS)) - 1;
+ *       }
+ *   }
+ *
+ *   // JMX view of one instrumented ADT; the arrays line up with getOperations(). Must be public, or the
+ *   // MBean server rejects AdtStats as not compliant.
+ *   public interface AdtStatsMBean {
+ *       String[] getOperations();
+ *       long[] getOpCounts();
+ *       long[] getP50Nanos();
+ *       long[] getP99Nanos();
+ *       long[] getP999Nanos();
+ *       long[] getMaxNanos();
+ *       long[] getAllocatedBytes();
+ *       long getHighWaterSize();
+ *       void reset();
+ *   }
+ *
+ *   class AdtStats implements AdtStatsMBean {
+ *       private final String[] ops;
+ *       private final LatencyHistogram[] latency;
+ *       private final java.util.concurrent.atomic.AtomicLongArray allocated;
+ *       private final java.util.concurrent.atomic.AtomicLong highWater = new java.util.concurrent.atomic.AtomicLong();
+ *
+ *       AdtStats(String... ops) {
+ *           this.ops = ops.clone();
+ *           latency = new LatencyHistogram[ops.length];
+ *           for (int i = 0; i < ops.length; i++) latency[i] = new LatencyHistogram();
+ *           allocated = new java.util.concurrent.atomic.AtomicLongArray(ops.length);
+ *       }
+ *
+ *       void record(int op, long nanos, long allocatedBytes) {
+ *           latency[op].record(nanos);
+ *           if (allocatedBytes > 0) allocated.getAndAdd(op, allocatedBytes);
+ *       }
+ *
+ *       void size(long size) {
+ *           if (size > highWater.get()) highWater.accumulateAndGet(size, Math::max);
+ *       }
+ *
+ *       public String[] getOperations() { return ops.clone(); }
+ *       public long[] getOpCounts() { return collect(h -> h.count()); }
+ *       public long[] getP50Nanos() { return collect(h -> h.percentile(50)); }
+ *       public long[] getP99Nanos() { return collect(h -> h.percentile(99)); }
+ *       public long[] getP999Nanos() { return collect(h -> h.percentile(99.9)); }
+ *       public long[] getMaxNanos() { return collect(h -> h.max()); }
+ *
+ *       public long[] getAllocatedBytes() {
+ *           long[] out = new long[ops.length];
+ *           for (int i = 0; i < out.length; i++) out[i] = allocated.get(i);
+ *           return out;
+ *       }
+ *
+ *       public long getHighWaterSize() { return highWater.get(); }
+ *
+ *       public void reset() {
+ *           for (int i = 0; i < ops.length; i++) {
+ *               latency[i].reset();
+ *               allocated.set(i, 0);
+ *           }
+ *           highWater.set(0);
+ *       }
+ *
+ *       private long[] collect(java.util.function.ToLongFunction<LatencyHistogram> f) {
+ *           long[] out = new long[ops.length];
+ *           for (int i = 0; i < out.length; i++) out[i] = f.applyAsLong(latency[i]);
+ *           return out;
+ *       }
+ *
+ *       @Override
+ *       public String toString() {
+ *           StringBuilder sb = new StringBuilder("high-water size " + highWater.get());
+ *           long[] n = getOpCounts(), p50 = getP50Nanos(), p99 = getP99Nanos(), mx = getMaxNanos(), bytes = getAllocatedBytes();
+ *           for (int i = 0; i < ops.length; i++) {
+ *               sb.append(String.format("%n  %-10s %,12d ops  p50 %,6d ns  p99 %,8d ns  max %,10d ns  %,d bytes allocated",
+ *                       ops[i], n[i], p50[i], p99[i], mx[i], bytes[i]));
+ *           }
+ *           return sb.toString();
+ *       }
+ *   }
+ *
+ *   // Registry of all instrumented ADTs, also published to JMX as adt:type=<kind>,name=<name>
+ *   class AdtMetrics {
+ *       // Off unless the JVM starts with -Dadt.metrics=true. static final, so when it is false the JIT
+ *       // drops the instrumentation branches entirely and the decorators cost nothing.
+ *       static final boolean ENABLED = Boolean.getBoolean("adt.metrics");
+ *
+ *       private static final java.util.concurrent.ConcurrentHashMap<String, AdtStats> REGISTRY = new java.util.concurrent.ConcurrentHashMap<>();
+ *       private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+ *
+ *       // Returns the stats registered under kind/name, creating and publishing them the first time
+ *       static AdtStats register(String kind, String name, String... ops) {
+ *           return REGISTRY.computeIfAbsent(kind + "/" + name, key -> {
+ *               AdtStats stats = new AdtStats(ops);
+ *               try {
+ *                   java.lang.management.ManagementFactory.getPlatformMBeanServer().registerMBean(stats, objectName(kind, name));
+ *               } catch (javax.management.JMException e) {
+ *                   throw new IllegalStateException("Cannot publish " + key + " to JMX", e);
+ *               }
+ *               return stats;
+ *           });
+ *       }
+ *
+ *       // True once register(kind, name, ...) has published the stats to the platform MBean server
+ *       static boolean isPublished(String kind, String name) {
+ *           return java.lang.management.ManagementFactory.getPlatformMBeanServer().isRegistered(objectName(kind, name));
+ *       }
+ *
+ *       private static javax.management.ObjectName objectName(String kind, String name) {
+ *           try {
+ *               return new javax.management.ObjectName("adt", new java.util.Hashtable<>(java.util.Map.of(
+ *                       "type", javax.management.ObjectName.quote(kind), "name", javax.management.ObjectName.quote(name))));
+ *           } catch (javax.management.MalformedObjectNameException e) {
+ *               throw new IllegalArgumentException("Bad JMX name " + kind + "/" + name, e);
+ *           }
+ *       }
+ *
+ *       static java.util.Map<String, AdtStats> all() { return java.util.Collections.unmodifiableMap(REGISTRY); }
+ *
+ *       static String report() {
+ *           StringBuilder sb = new StringBuilder();
+ *           new java.util.TreeMap<>(REGISTRY).forEach((key, stats) -> sb.append(key).append(": ").append(stats).append('\n'));
+ *           return sb.toString();
+ *       }
+ *
+ *       // Bytes allocated so far by the calling thread, or 0 when the JVM cannot tell
+ *       static long allocatedBytes() {
+ *           return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+ *       }
+ *
+ *       private static com.sun.management.ThreadMXBean threadBean() {
+ *           java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+ *           if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+ *               return (com.sun.management.ThreadMXBean) bean;
+ *           return null;
+ *       }
+ *   }
+ *
+ *   class InstrumentedStack implements StackADT {
+ *       private static final int PUSH = 0, POP = 1, PEEK = 2;
+ *       private final StackLL inner;
+ *       private final AdtStats stats;
+ *       private long size;
+ *
+ *       InstrumentedStack(StackLL inner, String name) {
+ *           this.inner = inner;
+ *           this.stats = AdtMetrics.ENABLED ? AdtMetrics.register("StackLL", name, "push", "pop", "peek") : null;
+ *       }
+ *
+ *       public void push(int x) {
+ *           if (!AdtMetrics.ENABLED) { inner.push(x); return; }
+ *           long bytes = AdtMetrics.allocatedBytes(), start = System.nanoTime();
+ *           inner.push(x);
+ *           stats.record(PUSH, System.nanoTime() - start, AdtMetrics.allocatedBytes() - bytes);
+ *           stats.size(++size);
+ *       }
+ *
+ *       public int pop() {
+ *           if (!AdtMetrics.ENABLED) return inner.pop();
+ *           long start = System.nanoTime();
+ *           int val = inner.pop();                           // an underflow is not counted
+ *           stats.record(POP, System.nanoTime() - start, 0);
+ *           size--;
+ *           return val;
+ *       }
+ *
+ *       public int peek() {
+ *           if (!AdtMetrics.ENABLED) return inner.peek();
+ *           long start = System.nanoTime();
+ *           int val = inner.peek();
+ *           stats.record(PEEK, System.nanoTime() - start, 0);
+ *           return val;
+ *       }
+ *
+ *       public boolean isEmpty() { return inner.isEmpty(); }
+ *   }
+ *
+ *   class InstrumentedQueue implements QueueADT {
+ *       private static final int ENQUEUE = 0, DEQUEUE = 1, PEEK = 2;
+ *       private final QueueLL inner;
+ *       private final AdtStats stats;
+ *       private long size;
+ *
+ *       InstrumentedQueue(QueueLL inner, String name) {
+ *           this.inner = inner;
+ *           this.stats = AdtMetrics.ENABLED ? AdtMetrics.register("QueueLL", name, "enqueue", "dequeue", "peek") : null;
+ *       }
+ *
+ *       public void enqueue(int x) {
+ *           if (!AdtMetrics.ENABLED) { inner.enqueue(x); return; }
+ *           long bytes = AdtMetrics.allocatedBytes(), start = System.nanoTime();
+ *           inner.enqueue(x);
+ *           stats.record(ENQUEUE, System.nanoTime() - start, AdtMetrics.allocatedBytes() - bytes);
+ *           stats.size(++size);
+ *       }
+ *
+ *       public int dequeue() {
+ *           if (!AdtMetrics.ENABLED) return inner.dequeue();
+ *           long start = System.nanoTime();
+ *           int val = inner.dequeue();
+ *           stats.record(DEQUEUE, System.nanoTime() - start, 0);
+ *           size--;
+ *           return val;
+ *       }
+ *
+ *       public int peek() {
+ *           if (!AdtMetrics.ENABLED) return inner.peek();
+ *           long start = System.nanoTime();
+ *           int val = inner.peek();
+ *           stats.record(PEEK, System.nanoTime() - start, 0);
+ *           return val;
+ *       }
+ *
+ *       public boolean isEmpty() { return inner.isEmpty(); }
+ *   }
+ *
+ *   class InstrumentedMinHeap {
+ *       private static final int INSERT = 0, DELETE_MIN = 1;
+ *       private final MinHeapPriorityQueue inner;
+ *       private final AdtStats stats;
+ *       private long size;
+ *
+ *       InstrumentedMinHeap(MinHeapPriorityQueue inner, String name) {
+ *           this.inner = inner;
+ *           this.stats = AdtMetrics.ENABLED ? AdtMetrics.register("MinHeapPriorityQueue", name, "insert", "deleteMin") : null;
+ *       }
+ *
+ *       void insert(int x) {
+ *           if (!AdtMetrics.ENABLED) { inner.insert(x); return; }
+ *           long start = System.nanoTime();
+ *           inner.insert(x);
+ *           stats.record(INSERT, System.nanoTime() - start, 0);
+ *           stats.size(++size);
+ *       }
+ *
+ *       int deleteMin() {
+ *           if (!AdtMetrics.ENABLED) return inner.deleteMin();
+ *           long start = System.nanoTime();
+ *           int val = inner.deleteMin();
+ *           stats.record(DELETE_MIN, System.nanoTime() - start, 0);
+ *           size--;
+ *           return val;
+ *       }
+ *   }
+ *
+ *   class InstrumentationDemo {
+ *       // java -Dadt.metrics=true InstrumentationDemo; then look under "adt" in jconsole, or read the printed report
+ *       public static void main(String[] args) {
+ *           InstrumentedStack stack = new InstrumentedStack(new StackLL(), "undo");
+ *           InstrumentedQueue queue = new InstrumentedQueue(new QueueLL(), "jobs");
+ *           InstrumentedMinHeap heap = new InstrumentedMinHeap(new MinHeapPriorityQueue(1 << 20), "timers");
+ *           java.util.Random rnd = new java.util.Random(1);
+ *           for (int i = 0; i < 1_000_000; i++) {
+ *               stack.push(i);
+ *               queue.enqueue(i);
+ *               heap.insert(rnd.nextInt());
+ *               if (i % 3 == 0) {
+ *                   stack.pop();
+ *                   queue.dequeue();
+ *                   heap.deleteMin();
+ *               }
+ *           }
+ *           if (!AdtMetrics.ENABLED) {
+ *               System.out.println("instrumentation is off (run with -Dadt.metrics=true)");
+ *               return;
+ *           }
+ *           System.out.print(AdtMetrics.report());
+ *           String[][] published = {{"StackLL", "undo"}, {"QueueLL", "jobs"}, {"MinHeapPriorityQueue", "timers"}};
+ *           for (String[] p : published) {
+ *               if (!AdtMetrics.isPublished(p[0], p[1])) throw new IllegalStateException(p[0] + "/" + p[1] + " is missing from JMX");
+ *           }
+ *           System.out.println("all three are visible in JMX under adt:*");
+ *       }
+ *   }
+ *
+ * Complexity:
+ *   - Disabled: none; the decorator is the wrapped call.
+ *   - Enabled: two System.nanoTime() calls and a histogram update per operation
+ *     (plus two allocation-counter reads on push / enqueue); O(1) memory per structure.
+ *
  * ==========================================================================================
  */
 